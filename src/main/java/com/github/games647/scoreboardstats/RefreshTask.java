@@ -1,29 +1,50 @@
 package com.github.games647.scoreboardstats;
 
 import com.github.games647.scoreboardstats.config.Settings;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.apache.commons.lang.mutable.MutableInt;
 import org.bukkit.entity.Player;
 
 /**
  * Handling all updates for a player in a performance optimized variant. This
  * class split the updates over the ticks much smoother.
  *
+ * The players are stored in a hashed timing wheel. Every slot represents one tick of the
+ * refresh interval, so a tick only touches the players which are actually due.
+ *
  * @see SbManager
  * @see com.github.games647.scoreboardstats.variables.ReplaceManager
  */
 public class RefreshTask implements Runnable {
 
+    //marks players that are already due, but couldn't be updated in their tick
+    private static final int OVERDUE_SLOT = -1;
+
+    //weight of a new measurement for the average update costs
+    private static final double COST_SMOOTHING = 0.1;
+
     private final ScoreboardStats plugin;
 
-    //Prevent duplicate entries and is faster than the delay queue
-    private final Map<Player, MutableInt> queue = Maps.newHashMapWithExpectedSize(100);
+    //Prevent duplicate entries and find the bucket of a player without scanning the wheel
+    private final Map<Player, Integer> slots = Maps.newHashMapWithExpectedSize(100);
+    //due players that exceeded the update limit of their tick - keeps the insertion order
+    private final Set<Player> overdue = Sets.newLinkedHashSet();
+
+    private List<Set<Player>> wheel;
+    private int currentSlot;
 
     private int nextGlobalUpdate = 20 * Settings.getInterval();
 
+    //moving average how long a single player update takes in nanoseconds
+    private double averageUpdateCost;
+
     /**
      * Initialize refresh task
      *
@@ -31,25 +52,47 @@ public class RefreshTask implements Runnable {
      */
     public RefreshTask(ScoreboardStats instance) {
         this.plugin = instance;
+
+        this.wheel = createWheel();
     }
 
     @Override
     public void run() {
+        currentSlot = (currentSlot + 1) % wheel.size();
+
+        //move the due players behind the ones which are waiting already
+        Set<Player> dueBucket = wheel.get(currentSlot);
+        for (Player player : dueBucket) {
+            slots.put(player, OVERDUE_SLOT);
+            overdue.add(player);
+        }
+
+        dueBucket.clear();
+
         //let the players update smoother
         int remainingUpdates = getNextUpdates();
-        for (Map.Entry<Player, MutableInt> entry : queue.entrySet()) {
-            Player player = entry.getKey();
-            MutableInt remanigTicks = entry.getValue();
-            if (remanigTicks.intValue() == 0) {
-                if (remainingUpdates != 0) {
-                    //Smoother refreshing; limit the updates
-                    plugin.getScoreboardManager().onUpdate(player);
-                    remanigTicks.setValue(20 * Settings.getInterval());
-                    remainingUpdates--;
-                }
-            } else {
-                remanigTicks.decrement();
+        long budget = getTickBudget();
+        long spentTime = 0;
+        for (Iterator<Player> iterator = overdue.iterator(); remainingUpdates > 0 && iterator.hasNext();) {
+            if (spentTime != 0 && spentTime + averageUpdateCost > budget) {
+                //the next update would probably exceed the time limit - the remaining players will wait
+                break;
             }
+
+            Player player = iterator.next();
+            iterator.remove();
+
+            //reschedule before the update, so a remove call during the update will be respected
+            schedule(player);
+
+            //Smoother refreshing; limit the updates
+            long startTime = System.nanoTime();
+            plugin.getScoreboardManager().onUpdate(player);
+            long updateCost = System.nanoTime() - startTime;
+
+            spentTime += updateCost;
+            averageUpdateCost += (updateCost - averageUpdateCost) * COST_SMOOTHING;
+            remainingUpdates--;
         }
 
         nextGlobalUpdate--;
@@ -67,10 +110,10 @@ public class RefreshTask implements Runnable {
      * @return true if it was successfully queued
      */
     public boolean addToQueue(Player request) {
-        boolean alreadyQueued = queue.containsKey(request);
+        boolean alreadyQueued = slots.containsKey(request);
         if (!alreadyQueued) {
             //check if it isn't already in the queue
-            queue.put(request, new MutableInt(20 * Settings.getInterval()));
+            schedule(request);
         }
 
         return !alreadyQueued;
@@ -83,7 +126,7 @@ public class RefreshTask implements Runnable {
      * @return true if the player is in the refresh queue.
      */
     public boolean contains(Player request) {
-        return queue.containsKey(request);
+        return slots.containsKey(request);
     }
 
     /**
@@ -93,18 +136,66 @@ public class RefreshTask implements Runnable {
      * @return if the last entry exists
      */
     public boolean remove(Player request) {
-        return queue.remove(request) != null;
+        Integer slot = slots.remove(request);
+        if (slot == null) {
+            return false;
+        }
+
+        if (slot == OVERDUE_SLOT) {
+            overdue.remove(request);
+        } else {
+            wheel.get(slot).remove(request);
+        }
+
+        return true;
     }
 
     /**
      * Clears the complete queue.
      */
     public void clear() {
-        queue.clear();
+        slots.clear();
+        overdue.clear();
+
+        //the interval could be changed by a reload
+        wheel = createWheel();
+        currentSlot = 0;
+        nextGlobalUpdate = 20 * Settings.getInterval();
+    }
+
+    private void schedule(Player player) {
+        //the wheel covers exactly one interval, so the slot of the current tick will be visited next after a full round
+        Set<Player> bucket = wheel.get(currentSlot);
+        bucket.add(player);
+        slots.put(player, currentSlot);
+    }
+
+    private List<Set<Player>> createWheel() {
+        //an interval of zero means an update on every tick
+        int ticks = Math.max(1, 20 * Settings.getInterval());
+
+        List<Set<Player>> newWheel = Lists.newArrayListWithCapacity(ticks);
+        for (int i = 0; i < ticks; i++) {
+            newWheel.add(Sets.newHashSet());
+        }
+
+        return newWheel;
+    }
+
+    private long getTickBudget() {
+        int budget = Settings.getUpdateBudget();
+        if (budget <= 0) {
+            return Long.MAX_VALUE;
+        }
+
+        //back off if the server is overloaded. A full tps means the whole budget can be used
+        float loadFactor = Math.min(TicksPerSecondTask.getLastTicks() / 20.0F, 1.0F);
+        //microseconds -> nanoseconds
+        return (long) (budget * 1_000L * loadFactor);
     }
 
     private int getNextUpdates() {
-        int nextUpdates = queue.size() / 20;
+        int nextUpdates = slots.size() / 20;
         if (nextUpdates <= 0) {
             //just update minimum one player per tick. Otherwise servers with not much players
             //won't receive any updates
@@ -1,8 +1,22 @@
 package com.github.games647.scoreboardstats;
 
+import com.github.games647.scoreboardstats.config.Lang;
 import com.github.games647.scoreboardstats.config.Settings;
+import com.github.games647.scoreboardstats.config.VariableItem;
 import com.github.games647.scoreboardstats.scoreboard.DelayedShowTask;
+import com.github.games647.scoreboardstats.scoreboard.SidebarState;
+import com.github.games647.scoreboardstats.variables.ReplaceEvent;
 import com.github.games647.scoreboardstats.variables.ReplaceManager;
+import com.github.games647.scoreboardstats.variables.UnknownVariableException;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -22,6 +36,8 @@ public abstract class SbManager {
 
     private final String permission;
 
+    private final Map<UUID, SidebarState> sidebarStates = Maps.newHashMapWithExpectedSize(50);
+
     public SbManager(ScoreboardStats plugin) {
         this.plugin = plugin;
         this.replaceManager = new ReplaceManager(this, plugin);
@@ -56,21 +72,40 @@ public abstract class SbManager {
 
     public abstract void update(Player player, String variable, int newScore);
 
+    /**
+     * Updates the score of a variable item, but only if the player doesn't see this score already.
+     *
+     * @param player the owner of the scoreboard
+     * @param variableItem the updated item
+     * @param newScore the new score
+     */
+    public void update(Player player, VariableItem variableItem, int newScore) {
+        SidebarState sidebarState = getSidebarState(player);
+        if (sidebarState != null && sidebarState.markSent(variableItem, newScore)) {
+            update(player, variableItem.getDisplayText(), newScore);
+        }
+    }
+
     /**
      * Adding all players to the refresh queue and loading the player stats if enabled
      */
     public void registerAll() {
         boolean ispvpstats = Settings.isPvpStats();
-        //maybe batch this
-        BackwardsCompatibleUtil.getOnlinePlayers().stream().filter(Player::isOnline).forEach(player -> {
+        List<Player> onlinePlayers = BackwardsCompatibleUtil.getOnlinePlayers().stream()
+                .filter(Player::isOnline)
+                .collect(Collectors.toList());
+        for (Player player : onlinePlayers) {
             if (ispvpstats) {
-                //maybe batch this
-                player.removeMetadata("player_stats", plugin);
-                plugin.getStatsDatabase().loadAccountAsync(player);
+                plugin.getStatsDatabase().removeCachedStats(player);
             }
 
             plugin.getRefreshTask().addToQueue(player);
-        });
+        }
+
+        if (ispvpstats) {
+            //load all stats with a couple of queries instead of one per player
+            plugin.getStatsDatabase().loadAccountsAsync(onlinePlayers);
+        }
     }
 
     /**
@@ -94,6 +129,95 @@ public abstract class SbManager {
      */
     protected abstract void sendUpdate(Player player);
 
+    /**
+     * Resolves the variables of the main scoreboard which are due for this player and sends the results.
+     *
+     * @param player the owner of the scoreboard
+     * @param complete whether it's the first refresh, so all variables should be resolved
+     * @param scoreSender sends the score of a scoreboard item by its display name
+     */
+    protected void refreshItems(Player player, boolean complete, ObjIntConsumer<String> scoreSender) {
+        SidebarState sidebarState = getSidebarState(player);
+        if (complete) {
+            if (sidebarState == null) {
+                sidebarState = new SidebarState();
+                sidebarStates.put(player.getUniqueId(), sidebarState);
+            }
+
+            //the objective is new so every score have to be sent
+            sidebarState.resetSent();
+        } else if (sidebarState == null) {
+            //the player already quit
+            return;
+        }
+
+        List<VariableItem> asyncItems = null;
+
+        Iterator<VariableItem> iter = Settings.getMainScoreboard().getItemsByVariable().values().iterator();
+        while (iter.hasNext()) {
+            VariableItem variableItem = iter.next();
+
+            //send the results from the last background run
+            ReplaceEvent resolvedEvent = sidebarState.pollResolved(variableItem);
+            if (resolvedEvent != null && resolvedEvent.isModified() && !complete) {
+                sendChanged(sidebarState, variableItem, resolvedEvent.getScore(), scoreSender);
+            }
+
+            if (complete) {
+                sidebarState.markRefreshed(variableItem);
+            } else if (!sidebarState.isRefreshDue(variableItem)) {
+                //the refresh interval of this item isn't elapsed yet
+                continue;
+            }
+
+            if (!complete && replaceManager.isAsync(variableItem)) {
+                //the first value is resolved sync so the scoreboard isn't empty
+                if (asyncItems == null) {
+                    asyncItems = Lists.newArrayList();
+                }
+
+                asyncItems.add(variableItem);
+                continue;
+            }
+
+            int score = sidebarState.getSentScore(variableItem, variableItem.getScore());
+
+            try {
+                ReplaceEvent replaceEvent = replaceManager.getScore(player, variableItem, score, complete);
+                if (replaceEvent.isModified()) {
+                    sendChanged(sidebarState, variableItem, replaceEvent.getScore(), scoreSender);
+                }
+            } catch (UnknownVariableException ex) {
+                //Remove the variable becaue we can't replace it
+                iter.remove();
+                Settings.getMainScoreboard().getItemsByName().remove(variableItem.getDisplayText());
+
+                plugin.getLogger().info(Lang.get("unknownVariable", variableItem));
+            }
+        }
+
+        if (asyncItems != null && sidebarState.startAsyncRefresh()) {
+            replaceManager.getScoresAsync(player, asyncItems, sidebarState::publish)
+                    .whenComplete((result, error) -> sidebarState.finishAsyncRefresh());
+        }
+    }
+
+    private void sendChanged(SidebarState sidebarState, VariableItem variableItem, int score
+            , ObjIntConsumer<String> scoreSender) {
+        //most of the values are the same between refreshes so we don't need a packet for them
+        if (sidebarState.markSent(variableItem, score)) {
+            scoreSender.accept(variableItem.getDisplayText(), score);
+        }
+    }
+
+    protected SidebarState getSidebarState(Player player) {
+        return sidebarStates.get(player.getUniqueId());
+    }
+
+    protected void removeSidebarState(Player player) {
+        sidebarStates.remove(player.getUniqueId());
+    }
+
     protected void scheduleShowTask(Player player, boolean action) {
         if (!Settings.isTempScoreboard()) {
             return;
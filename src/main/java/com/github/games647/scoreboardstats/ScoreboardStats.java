@@ -116,6 +116,8 @@ public class ScoreboardStats extends JavaPlugin {
         if (scoreboardManager != null) {
             //Clear all scoreboards
             scoreboardManager.unregisterAll();
+            //stop resolving variables in the background
+            getReplaceManager().close();
         }
 
         if (database != null) {
@@ -138,6 +140,7 @@ public class ScoreboardStats extends JavaPlugin {
 
         if (scoreboardManager != null) {
             scoreboardManager.unregisterAll();
+            getReplaceManager().close();
         }
 
         if (Settings.isCompatibilityMode()) {
@@ -29,9 +29,9 @@ public class TicksPerSecondTask implements Runnable {
 
         //how many ticks passed since the last check * 1000 to convert to seconds
         float tps = 3 * 20 * 1000.0F / (timeSpent / (1_000 * 1_000));
-        if (tps >= 0.0F && tps < 20.0F) {
-            //Prevent all invalid values
-            lastTicks = tps;
+        if (tps >= 0.0F) {
+            //Prevent all invalid values and clamp it so the tps will also recover after a lag
+            lastTicks = Math.min(tps, 20.0F);
         }
     }
 }
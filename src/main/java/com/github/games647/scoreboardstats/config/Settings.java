@@ -35,6 +35,9 @@ public class Settings extends CommentedYaml<ScoreboardStats> {
     @ConfigNode(path = "Scoreboard.Update-delay")
     private static int interval;
 
+    @ConfigNode(path = "Scoreboard.Update-budget")
+    private static int updateBudget = 2_000;
+
     @ConfigNode(path = "Temp-Scoreboard.Items")
     private static int topItems;
 
@@ -121,6 +124,15 @@ public class Settings extends CommentedYaml<ScoreboardStats> {
         return interval;
     }
 
+    /**
+     * Get the time in microseconds that scoreboard updates are allowed to take per tick.
+     *
+     * @return the time budget per tick in microseconds or a value below one if it's unlimited
+     */
+    public static int getUpdateBudget() {
+        return updateBudget;
+    }
+
     /**
      * Get how many items the temp-scoreboard should have
      *
@@ -222,14 +234,25 @@ public class Settings extends CommentedYaml<ScoreboardStats> {
             }
 
             String displayName = trimLength(key, maxLength);
-            String value = config.getString(key);
+
+            String value;
+            int refreshInterval = interval;
+            if (config.isConfigurationSection(key)) {
+                //item with an own refresh interval
+                ConfigurationSection itemSection = config.getConfigurationSection(key);
+                value = itemSection.getString("Value", "");
+                refreshInterval = itemSection.getInt("Update-delay", interval);
+            } else {
+                value = config.getString(key);
+            }
+
             if (displayName.contains("%")) {
                 String variable = "";
 //                mainScoreboard.addVariableItem(true, variable, displayName, value);
-            } else if (value.charAt(0) == '%' && value.charAt(value.length() - 1) == '%') {
+            } else if (!value.isEmpty() && value.charAt(0) == '%' && value.charAt(value.length() - 1) == '%') {
                 //Prevent case-sensitive mistakes
                 String variable = value.replace("%", "").toLowerCase();
-                mainScoreboard.addVariableItem(false, variable, displayName, 0);
+                mainScoreboard.addVariableItem(false, variable, displayName, 0, getRefreshCycles(refreshInterval));
             } else {
                 try {
                     int score = Integer.parseInt(value);
@@ -247,6 +270,12 @@ public class Settings extends CommentedYaml<ScoreboardStats> {
         }
     }
 
+    private int getRefreshCycles(int refreshInterval) {
+        //the players are refreshed in the global interval so an item can only be refreshed in multiples of it
+        int ticksPerRefresh = Math.max(1, 20 * interval);
+        return Math.max(1, Math.round(20 * refreshInterval / (float) ticksPerRefresh));
+    }
+
     //Inform the user that he should use compatibility modus to be compatible with some plugins
     private boolean isCompatibilityMode(boolean active) {
         if (active) {
@@ -13,6 +13,8 @@ public class SidebarConfig {
     private final Map<String, VariableItem> itemsByName = Maps.newHashMapWithExpectedSize(15);
     private final Map<String, VariableItem> itemsByVariable = Maps.newHashMapWithExpectedSize(15);
 
+    private int nextIndex;
+
     public SidebarConfig(String displayName) {
         this.displayName = ChatColor.translateAlternateColorCodes('&', displayName);
     }
@@ -33,9 +35,15 @@ public class SidebarConfig {
     }
 
     public void addVariableItem(boolean textVariable, String variable, String displayText, int defaultScore) {
+        addVariableItem(textVariable, variable, displayText, defaultScore, 1);
+    }
+
+    public void addVariableItem(boolean textVariable, String variable, String displayText, int defaultScore
+            , int refreshCycles) {
         String coloredDisplay = ChatColor.translateAlternateColorCodes('&', displayText);
-        
-        VariableItem variableItem = new VariableItem(textVariable, variable, coloredDisplay, defaultScore);
+
+        VariableItem variableItem = new VariableItem(nextIndex++, textVariable, variable, coloredDisplay
+                , defaultScore, refreshCycles);
         itemsByName.put(coloredDisplay, variableItem);
         itemsByVariable.put(variable, variableItem);
     }
@@ -59,6 +67,7 @@ public class SidebarConfig {
 
     public void clear() {
         itemsByVariable.clear();
+        nextIndex = 0;
     }
 
     @Override
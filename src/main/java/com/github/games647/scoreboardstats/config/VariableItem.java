@@ -1,23 +1,44 @@
 package com.github.games647.scoreboardstats.config;
 
+import com.github.games647.scoreboardstats.variables.VariableBinding;
+
 public class VariableItem {
 
     private final boolean textVariable;
     private final String variable;
 
+    //position of this item in the per player state arrays or -1 if it's not a variable
+    private final int index;
+    //how many refreshes of a player have to pass until this variable is resolved again
+    private final int refreshCycles;
+
     private String displayText;
     private int score;
 
+    //the looked up replacer of this variable - managed by the replace manager
+    private VariableBinding binding;
+
     public VariableItem(boolean textVariable, String variable, String displayText, int defaultScore) {
-        this(textVariable, variable, displayText);
+        this(-1, textVariable, variable, displayText, defaultScore, 1);
+    }
+
+    public VariableItem(int index, boolean textVariable, String variable, String displayText, int defaultScore
+            , int refreshCycles) {
+        this(index, textVariable, variable, displayText, refreshCycles);
 
         this.score = defaultScore;
     }
 
     public VariableItem(boolean textVariable, String variable, String displayText) {
+        this(-1, textVariable, variable, displayText, 1);
+    }
+
+    private VariableItem(int index, boolean textVariable, String variable, String displayText, int refreshCycles) {
+        this.index = index;
         this.textVariable = textVariable;
         this.variable = variable;
         this.displayText = displayText;
+        this.refreshCycles = refreshCycles;
     }
 
     public String getDisplayText() {
@@ -44,6 +65,37 @@ public class VariableItem {
         return variable;
     }
 
+    /**
+     * Get the position of this variable item in the sidebar config.
+     *
+     * @return the unique index of this item or -1 if it isn't a variable item
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Get how many refreshes of a player have to pass until this variable should be resolved again.
+     *
+     * @return the refresh cycles for this item; 1 means on every refresh
+     */
+    public int getRefreshCycles() {
+        return refreshCycles;
+    }
+
+    /**
+     * Get the replacer that was bound to this variable.
+     *
+     * @return the binding or null if the variable wasn't resolved yet
+     */
+    public VariableBinding getBinding() {
+        return binding;
+    }
+
+    public void setBinding(VariableBinding binding) {
+        this.binding = binding;
+    }
+
     @Override
     public String toString() {
         return "VariableItem{"
@@ -51,6 +103,7 @@ public class VariableItem {
                 + ", variable=" + variable
                 + ", displayText=" + displayText
                 + ", score=" + score
+                + ", refreshCycles=" + refreshCycles
                 + '}';
     }
 }
@@ -1,9 +1,10 @@
 package com.github.games647.scoreboardstats.pvpstats;
 
-import com.github.games647.scoreboardstats.BackwardsCompatibleUtil;
 import com.github.games647.scoreboardstats.ScoreboardStats;
 import com.github.games647.scoreboardstats.config.Lang;
 import com.github.games647.scoreboardstats.config.Settings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -11,25 +12,36 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.metadata.MetadataValue;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
@@ -38,17 +50,70 @@ import java.util.stream.Collectors;
  */
 public class Database {
 
-    private static final String METAKEY = "player_stats";
+    //write the modified stats if so many are waiting or at least after the interval
+    private static final int FLUSH_BATCH_SIZE = 50;
+    private static final int FLUSH_INTERVAL = 30;
+
+    //seconds until the stats loaded during a login are dropped if the player doesn't join
+    private static final int PRELOAD_EXPIRE = 60;
+
+    //how many players are loaded with a single query
+    private static final int LOAD_CHUNK_SIZE = 100;
+
+    //explicit projection, so the stats are independent from the column order of the table
+    private static final String STATS_COLUMNS
+            = "id, uuid, playername, kills, deaths, mobkills, killstreak, last_online";
 
     private final ScoreboardStats plugin;
 
+    //background work like the top list and the write-behind of the stats
     private final ScheduledExecutorService executor;
+    //the tasks of the current storage - they are scheduled again on a reload
+    private final List<ScheduledFuture<?>> scheduledTasks = Lists.newArrayList();
+    private boolean listenersRegistered;
+
+    //join loads shouldn't wait for slow background queries
+    private ExecutorService loadExecutor;
+
+    private final Leaderboards leaderboards = new Leaderboards();
+
+    //stats of the online players - can be read from any thread
+    private final Map<UUID, PlayerStats> statsCache = new ConcurrentHashMap<>();
+
+    //stats loaded during the login - removed on join or if the login fails. Expires if the connection dropped before.
+    private final Map<UUID, PlayerStats> preloadedStats = CacheBuilder.newBuilder()
+            .expireAfterWrite(PRELOAD_EXPIRE, TimeUnit.SECONDS)
+            .<UUID, PlayerStats>build()
+            .asMap();
+
+    //stats with unsaved changes - every stats object is queued only once until it's saved
+    private final Queue<PlayerStats> modifiedStats = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
-    private final Map<String, Integer> toplist = Maps.newHashMapWithExpectedSize(Settings.getTopitems());
+    //stats taken from the queue which are not committed yet - in the same order as they are written
+    private final Queue<PlayerStats> savingStats = new ConcurrentLinkedQueue<>();
 
     private final DatabaseConfiguration dbConfig;
     private HikariDataSource dataSource;
 
+    //replaces the SQL database if the stats are only stored locally
+    private LocalStatsStore localStore;
+
+    //creates and upgrades the tables
+    private SchemaMigrator schema;
+    private String tableName;
+    private String historyTable;
+    //whether the uuids are stored as 16 bytes instead of text
+    private boolean binaryUuids;
+
+    //select statement for a single player
+    private String loadQuery;
+
+    //insert or update statement for the dialect of the database or null if it isn't supported
+    private String upsertQuery;
+    private String historyUpsertQuery;
+
     public Database(ScoreboardStats plugin) {
         this.plugin = plugin;
         this.dbConfig = new DatabaseConfiguration(plugin);
@@ -66,15 +131,25 @@ public class Database {
      * @return the stats if they are in the cache
      */
     public PlayerStats getCachedStats(Player request) {
-        if (request != null) {
-            for (MetadataValue metadata : request.getMetadata(METAKEY)) {
-                if (metadata.value() instanceof PlayerStats) {
-                    return (PlayerStats) metadata.value();
-                }
-            }
+        if (request == null) {
+            return null;
         }
 
-        return null;
+        return statsCache.get(request.getUniqueId());
+    }
+
+    /**
+     * Removes the stats of this player from the cache.
+     *
+     * @param player the associated player
+     * @return the removed stats or null if they weren't loaded
+     */
+    public PlayerStats removeCachedStats(Player player) {
+        return statsCache.remove(player.getUniqueId());
+    }
+
+    void cacheStats(Player player, PlayerStats stats) {
+        statsCache.put(player.getUniqueId(), stats);
     }
 
     /**
@@ -83,11 +158,230 @@ public class Database {
      * @param player the associated player
      */
     public void loadAccountAsync(Player player) {
-        if (getCachedStats(player) == null && dataSource != null) {
-            executor.execute(new StatsLoader(plugin, dbConfig.isUuidUse(), player, this));
+        if (getCachedStats(player) == null && isAvailable()) {
+            loadExecutor.execute(new StatsLoader(plugin, dbConfig.isUuidUse(), player, this));
+        }
+    }
+
+    /**
+     * Loads the stats of a player who is logging in on the current thread, so they are ready before the player joins.
+     * This should be called from an async thread.
+     *
+     * @param uuid the uuid of the player
+     * @param playerName the name of the player
+     */
+    void preloadAccount(UUID uuid, String playerName) {
+        if (!isAvailable()) {
+            return;
+        }
+
+        PlayerStats stats = loadAccount(dbConfig.isUuidUse() ? uuid : playerName);
+        if (stats != null) {
+            //update player name on every load, because it's changeable
+            stats.setPlayername(playerName);
+            if (dbConfig.isUuidUse()) {
+                stats.setUuid(uuid);
+            }
+
+            preloadedStats.put(uuid, stats);
+        }
+    }
+
+    /**
+     * Removes the stats which were loaded during the login of this player.
+     *
+     * @param uuid the uuid of the player
+     * @return the loaded stats or null if they aren't loaded
+     */
+    PlayerStats removePreloadedStats(UUID uuid) {
+        return preloadedStats.remove(uuid);
+    }
+
+    /**
+     * Starts loading the stats for multiple players in an external thread. The stats are fetched in chunks instead of
+     * a query for every player.
+     *
+     * @param players the associated players
+     */
+    public void loadAccountsAsync(Collection<? extends Player> players) {
+        if (!isAvailable()) {
+            return;
+        }
+
+        Map<String, Player> toLoad = Maps.newHashMapWithExpectedSize(players.size());
+        for (Player player : players) {
+            if (getCachedStats(player) == null) {
+                toLoad.put(getLookupKey(player), player);
+            }
+        }
+
+        if (toLoad.isEmpty()) {
+            return;
+        }
+
+        loadExecutor.execute(() -> {
+            Map<Player, PlayerStats> loaded = Maps.newHashMapWithExpectedSize(toLoad.size());
+            for (List<String> chunk : Iterables.partition(toLoad.keySet(), LOAD_CHUNK_SIZE)) {
+                Map<String, PlayerStats> chunkStats = loadAccounts(chunk);
+                if (chunkStats == null) {
+                    //couldn't be loaded
+                    continue;
+                }
+
+                for (String key : chunk) {
+                    Player player = toLoad.get(key);
+                    PlayerStats stats = chunkStats.get(normalizeKey(key));
+                    if (stats == null) {
+                        //If there are no existing stat create a new object with empty stats
+                        stats = new PlayerStats();
+                        stats.setModifiedListener(this::queueSave);
+                    }
+
+                    //update player name on every load, because it's changeable
+                    stats.setPlayername(player.getName());
+                    if (dbConfig.isUuidUse()) {
+                        stats.setUuid(player.getUniqueId());
+                    }
+
+                    loaded.put(player, stats);
+                }
+            }
+
+            //notify all at once in a single task
+            Bukkit.getScheduler().runTask(plugin, () -> loaded.forEach(this::applyLoadedStats));
+        });
+    }
+
+    /**
+     * Adds the loaded stats to the cache and updates the scoreboard. This have to be called from the main thread.
+     *
+     * @param player the associated player
+     * @param stats the loaded stats
+     */
+    void applyLoadedStats(Player player, PlayerStats stats) {
+        if (player.isOnline()) {
+            //sets it only if the player is only
+            cacheStats(player, stats);
+            plugin.getReplaceManager().updateScore(player, "deaths", stats.getDeaths());
+            plugin.getReplaceManager().updateScore(player, "kdr", stats.getKdr());
+            plugin.getReplaceManager().updateScore(player, "kills", stats.getKills());
+            plugin.getReplaceManager().updateScore(player, "killstreak", stats.getKillstreak());
+            plugin.getReplaceManager().updateScore(player, "current_streak", stats.getLaststreak());
+            plugin.getReplaceManager().updateScore(player, "mobkills", stats.getMobkills());
+            updatePeriodScores(player, stats);
         }
     }
 
+    /**
+     * Updates the variables of all time periods like <i>kills_week</i>.
+     *
+     * @param player the associated player
+     * @param stats the stats of this player
+     */
+    void updatePeriodScores(Player player, PlayerStats stats) {
+        PeriodStats periodStats = stats.getPeriodStats();
+        for (StatsPeriod period : StatsPeriod.values()) {
+            String suffix = '_' + period.getName();
+            plugin.getReplaceManager().updateScore(player, "kills" + suffix, periodStats.getKills(period));
+            plugin.getReplaceManager().updateScore(player, "deaths" + suffix, periodStats.getDeaths(period));
+            plugin.getReplaceManager().updateScore(player, "mob" + suffix, periodStats.getMobkills(period));
+        }
+    }
+
+    private Map<String, PlayerStats> loadAccounts(List<String> chunk) {
+        Map<String, PlayerStats> result = Maps.newHashMapWithExpectedSize(chunk.size());
+
+        List<String> keys = Lists.newArrayListWithExpectedSize(chunk.size());
+        for (String key : chunk) {
+            PlayerStats pending = getPendingStats(dbConfig.isUuidUse() ? UUID.fromString(key) : key);
+            if (pending == null) {
+                keys.add(key);
+            } else {
+                //the database doesn't have the latest values yet
+                result.put(normalizeKey(key), pending);
+            }
+        }
+
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        if (localStore != null) {
+            for (String key : keys) {
+                PlayerStats stats = localStore.load(dbConfig.isUuidUse() ? UUID.fromString(key) : key);
+                if (!stats.isNew()) {
+                    stats.setModifiedListener(this::queueSave);
+                    result.put(normalizeKey(key), stats);
+                }
+            }
+
+            return result;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            conn = dataSource.getConnection();
+
+            String placeholders = String.join(", ", Collections.nCopies(keys.size(), "?"));
+            stmt = conn.prepareStatement("SELECT " + STATS_COLUMNS + " FROM " + tableName + " WHERE "
+                    + (dbConfig.isUuidUse() ? "uuid" : "playername")
+                    + " IN (" + placeholders + ')');
+            for (int i = 0; i < keys.size(); i++) {
+                if (dbConfig.isUuidUse()) {
+                    setUuid(stmt, i + 1, UUID.fromString(keys.get(i)));
+                } else {
+                    stmt.setString(i + 1, keys.get(i));
+                }
+            }
+
+            resultSet = stmt.executeQuery();
+
+            Map<String, PlayerStats> loaded = Maps.newHashMapWithExpectedSize(keys.size());
+            PlayerStats stats;
+            //no more rows if the extracted stats are new
+            while (!(stats = extractPlayerStats(resultSet)).isNew()) {
+                stats.setModifiedListener(this::queueSave);
+                if (dbConfig.isUuidUse()) {
+                    loaded.put(String.valueOf(stats.getUuid()), stats);
+                } else {
+                    loaded.put(normalizeKey(stats.getPlayername()), stats);
+                }
+            }
+
+            loadHistory(conn, loaded);
+            result.putAll(loaded);
+            return result;
+        } catch (SQLException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error loading player profiles", ex);
+        } finally {
+            close(resultSet);
+            close(stmt);
+            close(conn);
+        }
+
+        return null;
+    }
+
+    private String getLookupKey(Player player) {
+        if (dbConfig.isUuidUse()) {
+            return player.getUniqueId().toString();
+        }
+
+        //the exact name like for a single player, because SQLite and H2 compare it case sensitive
+        return player.getName();
+    }
+
+    private String normalizeKey(String key) {
+        if (dbConfig.isUuidUse()) {
+            return key;
+        }
+
+        //the rows are matched case insensitive in MySQL, so the fetched name could be written differently
+        return key.toLowerCase(Locale.ENGLISH);
+    }
+
     /**
      * Starts loading the stats for a specific player sync
      *
@@ -95,22 +389,49 @@ public class Database {
      * @return the loaded stats
      */
     public PlayerStats loadAccount(Object uniqueId) {
-        if (uniqueId == null || dataSource == null) {
+        if (uniqueId == null || !isAvailable()) {
             return null;
         } else {
+            PlayerStats pending = getPendingStats(uniqueId);
+            if (pending != null) {
+                //the player rejoined before the stats were written - the database still has the old values
+                return pending;
+            }
+
+            if (localStore != null) {
+                PlayerStats stats = localStore.load(uniqueId);
+                stats.setModifiedListener(this::queueSave);
+                return stats;
+            }
+
             Connection conn = null;
             PreparedStatement stmt = null;
             ResultSet resultSet = null;
             try {
                 conn = dataSource.getConnection();
 
-                stmt = conn.prepareStatement("SELECT * FROM player_stats WHERE "
-                        + (dbConfig.isUuidUse() ? "uuid" : "playername")
-                        + "=?");
-                stmt.setString(1, uniqueId.toString());
+                //the same query text every time, so the driver can reuse the prepared statement
+                stmt = conn.prepareStatement(loadQuery);
+                if (uniqueId instanceof UUID) {
+                    setUuid(stmt, 1, (UUID) uniqueId);
+                } else {
+                    stmt.setString(1, uniqueId.toString());
+                }
 
                 resultSet = stmt.executeQuery();
-                return extractPlayerStats(resultSet);
+
+                PlayerStats stats = extractPlayerStats(resultSet);
+                stats.setModifiedListener(this::queueSave);
+                if (!stats.isNew()) {
+                    String historyKey = uniqueId.toString();
+                    if (!dbConfig.isUuidUse()) {
+                        historyKey = historyKey.toLowerCase(Locale.ENGLISH);
+                    }
+
+                    loadHistory(conn, Collections.singletonMap(historyKey, stats));
+                }
+
+                return stats;
             } catch (SQLException ex) {
                 plugin.getLogger().log(Level.SEVERE, "Error loading player profile", ex);
             } finally {
@@ -123,24 +444,124 @@ public class Database {
         }
     }
 
+    private void loadHistory(Connection conn, Map<String, PlayerStats> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            String placeholders = String.join(", ", Collections.nCopies(stats.size(), "?"));
+            stmt = conn.prepareStatement("SELECT player, day, kills, deaths, mobkills FROM " + historyTable
+                    + " WHERE day >= ? AND player IN (" + placeholders + ')');
+
+            //only the days of the current periods
+            stmt.setLong(1, StatsPeriod.getEarliestStart(LocalDate.now()).toEpochDay());
+            int index = 2;
+            for (String key : stats.keySet()) {
+                stmt.setString(index++, key);
+            }
+
+            resultSet = stmt.executeQuery();
+            while (resultSet.next()) {
+                PlayerStats stat = stats.get(resultSet.getString("player"));
+                if (stat != null) {
+                    LocalDate day = LocalDate.ofEpochDay(resultSet.getLong("day"));
+                    stat.getPeriodStats().add(day, resultSet.getInt("kills")
+                            , resultSet.getInt("deaths"), resultSet.getInt("mobkills"));
+                }
+            }
+        } catch (SQLException ex) {
+            //the lifetime stats are still usable
+            plugin.getLogger().log(Level.WARNING, "Error loading the stats history", ex);
+        } finally {
+            close(resultSet);
+            close(stmt);
+        }
+    }
+
+    private String getHistoryKey(PlayerStats stats) {
+        if (dbConfig.isUuidUse()) {
+            return stats.getUuid() == null ? null : stats.getUuid().toString();
+        }
+
+        return stats.getPlayername() == null ? null : stats.getPlayername().toLowerCase(Locale.ENGLISH);
+    }
+
+    private PlayerStats getPendingStats(Object uniqueId) {
+        //on a relog the old session is still online during the login
+        if (uniqueId instanceof UUID) {
+            PlayerStats live = statsCache.get(uniqueId);
+            if (live != null) {
+                return live;
+            }
+        } else {
+            for (PlayerStats live : statsCache.values()) {
+                if (uniqueId.equals(live.getPlayername())) {
+                    return live;
+                }
+            }
+        }
+
+        //the flush moves them to the saving queue before they are removed from the modified ones
+        for (Queue<PlayerStats> pending : Arrays.asList(modifiedStats, savingStats)) {
+            for (PlayerStats stats : pending) {
+                if (uniqueId.equals(stats.getUuid()) || uniqueId.equals(stats.getPlayername())) {
+                    return stats;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private UUID getUuid(ResultSet resultSet) throws SQLException {
+        if (binaryUuids) {
+            byte[] uuidBytes = resultSet.getBytes("uuid");
+            if (uuidBytes == null) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(uuidBytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+
+        String unparsedUUID = resultSet.getString("uuid");
+        if (unparsedUUID == null) {
+            return null;
+        }
+
+        return UUID.fromString(unparsedUUID);
+    }
+
+    private void setUuid(PreparedStatement stmt, int index, UUID uuid) throws SQLException {
+        if (!binaryUuids) {
+            stmt.setString(index, uuid == null ? null : uuid.toString());
+        } else if (uuid == null) {
+            stmt.setNull(index, Types.BINARY);
+        } else {
+            stmt.setBytes(index, ByteBuffer.allocate(16)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array());
+        }
+    }
+
     private PlayerStats extractPlayerStats(ResultSet resultSet) throws SQLException {
         if (resultSet.next()) {
-            int id = resultSet.getInt(1);
+            int id = resultSet.getInt("id");
 
-            String unparsedUUID = resultSet.getString(2);
-            UUID uuid = null;
-            if (unparsedUUID != null) {
-                uuid = UUID.fromString(unparsedUUID);
-            }
+            UUID uuid = getUuid(resultSet);
 
-            String playerName = resultSet.getString(3);
+            String playerName = resultSet.getString("playername");
 
-            int kills = resultSet.getInt(4);
-            int deaths = resultSet.getInt(5);
-            int mobkills = resultSet.getInt(6);
-            int killstreak = resultSet.getInt(7);
+            int kills = resultSet.getInt("kills");
+            int deaths = resultSet.getInt("deaths");
+            int mobkills = resultSet.getInt("mobkills");
+            int killstreak = resultSet.getInt("killstreak");
 
-            long lastOnline = resultSet.getLong(8);
+            long lastOnline = resultSet.getLong("last_online");
             return new PlayerStats(id, uuid, playerName, kills, deaths, mobkills, killstreak, lastOnline);
         } else {
             //If there are no existing stat create a new object with empty stats
@@ -155,7 +576,7 @@ public class Database {
      * @return the loaded stats
      */
     public PlayerStats loadAccount(Player player) {
-        if (player == null || dataSource == null) {
+        if (player == null || !isAvailable()) {
             return null;
         } else {
             if (dbConfig.isUuidUse()) {
@@ -172,29 +593,213 @@ public class Database {
      * @param stats PlayerStats data
      */
     public void saveAsync(PlayerStats stats) {
-        executor.submit(() -> save(Lists.newArrayList(stats)));
+        if (stats != null && stats.isModified()) {
+            //the stats are already in the write-behind queue
+            executor.execute(this::flushModified);
+        }
     }
 
     /**
      * Save the PlayerStats on the current Thread.
      *
      * @param stats PlayerStats data
+     * @return false if the changes of some stats couldn't be written and are queued again
      */
-    public void save(List<PlayerStats> stats) {
-        if (stats != null && dataSource != null) {
-            update(stats.stream()
-                    .filter(PlayerStats::isModified)
-                    .filter(stat -> !stat.isNew())
-                    .collect(Collectors.toList()));
+    public boolean save(List<PlayerStats> stats) {
+        if (stats == null || !isAvailable()) {
+            return true;
+        }
 
-            insert(stats.stream()
-                    .filter(PlayerStats::isModified)
-                    .filter(PlayerStats::isNew)
-                    .collect(Collectors.toList()));
+        //reset it before the values are read, so changes while saving will be queued again
+        Map<PlayerStats, StatsDelta> modified = Maps.newLinkedHashMap();
+        stats.stream()
+                .filter(Objects::nonNull)
+                .filter(PlayerStats::resetModified)
+                .forEach(stat -> modified.put(stat, stat.takeDelta()));
+        if (modified.isEmpty()) {
+            return true;
+        }
+
+        if (localStore != null) {
+            //a local store is only used by this server, so the complete stats can be written
+            try {
+                localStore.save(modified.keySet());
+                return true;
+            } catch (IOException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Error saving profiles", ex);
+                modified.forEach(PlayerStats::restoreDelta);
+                return false;
+            }
+        }
+
+        if (upsertQuery != null) {
+            return saveOrRestore(modified, upsert(modified));
+        }
+
+        Map<PlayerStats, StatsDelta> existing = Maps.newLinkedHashMap();
+        Map<PlayerStats, StatsDelta> created = Maps.newLinkedHashMap();
+        modified.forEach((stat, delta) -> (stat.isNew() ? created : existing).put(stat, delta));
+
+        boolean success = existing.isEmpty() || saveOrRestore(existing, update(existing));
+        return (created.isEmpty() || saveOrRestore(created, insert(created.keySet()))) && success;
+    }
+
+    private boolean saveOrRestore(Map<PlayerStats, StatsDelta> stats, boolean written) {
+        if (written) {
+            saveHistory(stats);
+        } else {
+            stats.forEach(PlayerStats::restoreDelta);
+        }
+
+        return written;
+    }
+
+    private void queueSave(PlayerStats stats) {
+        modifiedStats.add(stats);
+        if (pendingWrites.incrementAndGet() >= FLUSH_BATCH_SIZE && !executor.isShutdown()
+                && flushScheduled.compareAndSet(false, true)) {
+            //don't wait for the interval if there are enough for a batch
+            executor.execute(this::flushModified);
+        }
+    }
+
+    private void flushModified() {
+        if (!isAvailable()) {
+            //the stats couldn't be marked as saved, so they stay queued until there is a storage
+            return;
+        }
+
+        //failed stats are queued again, so only the ones queued before are taken to terminate
+        int queued = pendingWrites.get();
+        //the failed ones also shouldn't trigger a flush again before the next interval
+        flushScheduled.set(true);
+
+        List<PlayerStats> batch = Lists.newArrayListWithExpectedSize(FLUSH_BATCH_SIZE);
+        PlayerStats stats;
+        //this is the only consumer, so the peeked stats are the polled ones
+        while (queued-- > 0 && (stats = modifiedStats.peek()) != null) {
+            //a loader of a rejoining player finds them in one of both queues
+            savingStats.add(stats);
+            modifiedStats.poll();
+
+            pendingWrites.decrementAndGet();
+            batch.add(stats);
+            if (batch.size() >= FLUSH_BATCH_SIZE && !saveBatch(batch)) {
+                //the database is probably unavailable - retry with the next interval
+                return;
+            }
+        }
+
+        if (batch.isEmpty() || saveBatch(batch)) {
+            flushScheduled.set(false);
+        }
+    }
+
+    private boolean saveBatch(List<PlayerStats> batch) {
+        try {
+            return save(batch);
+        } finally {
+            //the loaders read the committed rows from now on
+            batch.forEach(stats -> savingStats.poll());
+            batch.clear();
+        }
+    }
+
+    private void saveHistory(Map<PlayerStats, StatsDelta> stats) {
+        //the changes are added to the rows of the days they happened
+        List<HistoryRow> rows = Lists.newArrayList();
+        stats.forEach((stat, delta) -> {
+            String key = getHistoryKey(stat);
+            if (key != null && stat.getPlayername() != null) {
+                delta.getDays().forEach((day, dayDelta) -> {
+                    if (!dayDelta.isEmpty()) {
+                        rows.add(new HistoryRow(key, day.toEpochDay(), stat.getPlayername(), dayDelta));
+                    }
+                });
+            }
+        });
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+
+            if (historyUpsertQuery == null) {
+                updateOrInsertHistory(conn, rows);
+            } else {
+                //a single statement per row, so it doesn't race with other servers using the same table
+                executeHistoryBatch(conn, historyUpsertQuery, rows);
+            }
+
+            conn.commit();
+        } catch (Exception ex) {
+            //the lifetime stats are already saved, so don't add these changes again
+            plugin.getLogger().log(Level.WARNING, "Error saving the stats history", ex);
+        } finally {
+            close(conn);
+        }
+    }
+
+    private void updateOrInsertHistory(Connection conn, List<HistoryRow> rows) throws SQLException {
+        PreparedStatement updateStmt = null;
+        try {
+            updateStmt = conn.prepareStatement("UPDATE " + historyTable
+                    + " SET kills=kills+?, deaths=deaths+?, mobkills=mobkills+?, playername=? "
+                    + "WHERE player=? AND day=?");
+            for (HistoryRow row : rows) {
+                updateStmt.setInt(1, row.delta.getKills());
+                updateStmt.setInt(2, row.delta.getDeaths());
+                updateStmt.setInt(3, row.delta.getMobkills());
+                updateStmt.setString(4, row.playerName);
+                updateStmt.setString(5, row.player);
+                updateStmt.setLong(6, row.day);
+                updateStmt.addBatch();
+            }
+
+            int[] updated = updateStmt.executeBatch();
+
+            //the first changes of these days
+            List<HistoryRow> created = Lists.newArrayList();
+            for (int i = 0; i < rows.size(); i++) {
+                if (updated[i] == 0) {
+                    created.add(rows.get(i));
+                }
+            }
+
+            if (!created.isEmpty()) {
+                executeHistoryBatch(conn, "INSERT INTO " + historyTable
+                        + " (player, day, playername, kills, deaths, mobkills) VALUES (?, ?, ?, ?, ?, ?)", created);
+            }
+        } finally {
+            close(updateStmt);
         }
     }
 
-    private void update(List<PlayerStats> stats) {
+    private void executeHistoryBatch(Connection conn, String query, List<HistoryRow> rows) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(query);
+            for (HistoryRow row : rows) {
+                stmt.setString(1, row.player);
+                stmt.setLong(2, row.day);
+                stmt.setString(3, row.playerName);
+                stmt.setInt(4, row.delta.getKills());
+                stmt.setInt(5, row.delta.getDeaths());
+                stmt.setInt(6, row.delta.getMobkills());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+        } finally {
+            close(stmt);
+        }
+    }
+
+    private boolean update(Map<PlayerStats, StatsDelta> stats) {
         //Save the stats to the database
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -202,15 +807,33 @@ public class Database {
             conn = dataSource.getConnection();
             conn.setAutoCommit(false);
 
-            stmt = conn.prepareStatement("UPDATE player_stats "
-                    + "SET kills=?, deaths=?, killstreak=?, mobkills=?, last_online=?, playername=? "
-                    + "WHERE id=?");
+            if (dbConfig.isDeltaUpdates()) {
+                //add only our changes, so other servers using the same table don't lose theirs
+                String greatest = isSQLite() ? "MAX" : "GREATEST";
+                stmt = conn.prepareStatement("UPDATE " + tableName
+                        + " SET kills=kills+?, deaths=deaths+?, killstreak=" + greatest + "(killstreak, ?), "
+                        + "mobkills=mobkills+?, last_online=?, playername=? "
+                        + "WHERE id=?");
+            } else {
+                stmt = conn.prepareStatement("UPDATE " + tableName
+                        + " SET kills=?, deaths=?, killstreak=?, mobkills=?, last_online=?, playername=? "
+                        + "WHERE id=?");
+            }
 
-            for (PlayerStats stat : stats) {
-                stmt.setInt(1, stat.getKills());
-                stmt.setInt(2, stat.getDeaths());
-                stmt.setInt(3, stat.getKillstreak());
-                stmt.setInt(4, stat.getMobkills());
+            for (Map.Entry<PlayerStats, StatsDelta> entry : stats.entrySet()) {
+                PlayerStats stat = entry.getKey();
+                StatsDelta delta = entry.getValue();
+                if (dbConfig.isDeltaUpdates()) {
+                    stmt.setInt(1, delta.getKills());
+                    stmt.setInt(2, delta.getDeaths());
+                    stmt.setInt(3, stat.getKillstreak());
+                    stmt.setInt(4, delta.getMobkills());
+                } else {
+                    stmt.setInt(1, stat.getKills());
+                    stmt.setInt(2, stat.getDeaths());
+                    stmt.setInt(3, stat.getKillstreak());
+                    stmt.setInt(4, stat.getMobkills());
+                }
 
                 stmt.setLong(5, stat.getLastOnline());
                 stmt.setString(6, stat.getPlayername());
@@ -221,15 +844,63 @@ public class Database {
 
             stmt.executeBatch();
             conn.commit();
+            return true;
         } catch (Exception ex) {
             plugin.getLogger().log(Level.SEVERE, "Error updating profiles", ex);
+            return false;
         } finally {
             close(stmt);
             close(conn);
         }
     }
 
-    private void insert(List<PlayerStats> stats) {
+    private boolean upsert(Map<PlayerStats, StatsDelta> stats) {
+        //inserts and updates in a single batch - the rows are identified by the unique key column
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+
+            stmt = conn.prepareStatement(upsertQuery);
+            for (Map.Entry<PlayerStats, StatsDelta> entry : stats.entrySet()) {
+                PlayerStats stat = entry.getKey();
+                setUuid(stmt, 1, stat.getUuid());
+                stmt.setString(2, stat.getPlayername());
+
+                if (dbConfig.isDeltaUpdates()) {
+                    //the query adds them to the existing row
+                    StatsDelta delta = entry.getValue();
+                    stmt.setInt(3, delta.getKills());
+                    stmt.setInt(4, delta.getDeaths());
+                    stmt.setInt(6, delta.getMobkills());
+                } else {
+                    stmt.setInt(3, stat.getKills());
+                    stmt.setInt(4, stat.getDeaths());
+                    stmt.setInt(6, stat.getMobkills());
+                }
+
+                stmt.setInt(5, stat.getKillstreak());
+
+                stmt.setLong(7, stat.getLastOnline());
+                stmt.addBatch();
+            }
+
+            stmt.executeBatch();
+            conn.commit();
+            return true;
+        } catch (Exception ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error saving profiles", ex);
+            return false;
+        } finally {
+            close(stmt);
+            close(conn);
+        }
+    }
+
+    private boolean insert(Collection<PlayerStats> stats) {
+        boolean committed = false;
+
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet generatedKeys = null;
@@ -237,12 +908,12 @@ public class Database {
             conn = dataSource.getConnection();
             conn.setAutoCommit(false);
 
-            stmt = conn.prepareStatement("INSERT INTO player_stats "
-                    + "(uuid, playername, kills, deaths, killstreak, mobkills, last_online) VALUES "
+            stmt = conn.prepareStatement("INSERT INTO " + tableName
+                    + " (uuid, playername, kills, deaths, killstreak, mobkills, last_online) VALUES "
                     + "(?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
 
             for (PlayerStats stat : stats) {
-                stmt.setString(1, stat.getUuid() == null ? null : stat.getUuid().toString());
+                setUuid(stmt, 1, stat.getUuid());
                 stmt.setString(2, stat.getPlayername());
 
                 stmt.setInt(3, stat.getKills());
@@ -256,6 +927,7 @@ public class Database {
 
             stmt.executeBatch();
             conn.commit();
+            committed = true;
 
             generatedKeys = stmt.getGeneratedKeys();
             for (PlayerStats stat : stats) {
@@ -272,6 +944,9 @@ public class Database {
             close(stmt);
             close(conn);
         }
+
+        //the rows exist even if the ids couldn't be fetched
+        return committed;
     }
 
     /**
@@ -282,8 +957,7 @@ public class Database {
             plugin.getLogger().info(Lang.get("savingStats"));
 
             //If pvpstats are enabled save all stats that are in the cache
-            List<PlayerStats> toSave = BackwardsCompatibleUtil.getOnlinePlayers().stream()
-                    .map(this::getCachedStats)
+            List<PlayerStats> toSave = statsCache.values().stream()
                     .filter(PlayerStats::isModified)
                     .collect(Collectors.toList());
 
@@ -291,16 +965,29 @@ public class Database {
                 save(toSave);
             }
 
+            if (loadExecutor != null) {
+                loadExecutor.shutdown();
+            }
+
             executor.shutdown();
 
             executor.awaitTermination(15, TimeUnit.MINUTES);
-        } catch (InterruptedException ex) {
+            if (loadExecutor != null) {
+                loadExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+
+            //write the stats of players that already left
+            flushModified();
+
+            if (localStore != null) {
+                localStore.close();
+            }
+        } catch (InterruptedException | IOException ex) {
             plugin.getLogger().log(Level.SEVERE, "Couldn't save the stats to the database", ex);
         } finally {
             //Make rally sure we remove all even on error
-            BackwardsCompatibleUtil.getOnlinePlayers()
-                    .stream()
-                    .forEach(player -> player.removeMetadata(METAKEY, plugin));
+            statsCache.clear();
+            preloadedStats.clear();
         }
     }
 
@@ -308,68 +995,159 @@ public class Database {
      * Initialize a components and checking for an existing database
      */
     public void setupDatabase() {
+        //also if the previous storage couldn't be set up
+        scheduledTasks.forEach(task -> task.cancel(false));
+        scheduledTasks.clear();
+
+        List<PlayerStats> unsaved = Collections.emptyList();
+        String previousTarget = null;
+        if (isAvailable()) {
+            //reload - the storage could be changed, so write the changes with the current configuration
+            previousTarget = getStorageTarget();
+            unsaved = closeStorage();
+        }
+
         //Check if pvpstats should be enabled
         dbConfig.loadConfiguration();
 
-        dataSource = new HikariDataSource(dbConfig.getServerConfig());
+        String keyColumn = dbConfig.isUuidUse() ? "uuid" : "playername";
+        schema = new SchemaMigrator(plugin.getLogger(), dbConfig.getTablePrefix(), keyColumn
+                , dbConfig.isMySQL(), isSQLite());
+        tableName = schema.getTableName();
+        historyTable = schema.getHistoryTableName();
+
+        loadQuery = "SELECT " + STATS_COLUMNS + " FROM " + tableName + " WHERE "
+                + (dbConfig.isUuidUse() ? "uuid" : "playername") + "=?";
+        if (loadExecutor != null) {
+            //reload - the pool size could be changed
+            loadExecutor.shutdown();
+        }
 
-        Connection conn = null;
-        Statement stmt = null;
-        try {
-            conn = dataSource.getConnection();
-            stmt = conn.createStatement();
-            String createTableQuery = "CREATE TABLE IF NOT EXISTS player_stats ( "
-                    + "id integer PRIMARY KEY AUTO_INCREMENT, "
-                    + "uuid varchar(40), "
-                    + "playername varchar(16) not null, "
-                    + "kills integer not null, "
-                    + "deaths integer not null, "
-                    + "mobkills integer not null, "
-                    + "killstreak integer not null, "
-                    + "last_online timestamp not null )";
+        loadExecutor = Executors.newFixedThreadPool(dbConfig.getLoadThreads(), new ThreadFactoryBuilder()
+                .setNameFormat(plugin.getName() + "-Database-Loader-%d").build());
 
-            if (dbConfig.getServerConfig().getDriverClassName().contains("sqlite")) {
-                createTableQuery = createTableQuery.replace("AUTO_INCREMENT", "");
+        if (dbConfig.isLocalStorage()) {
+            setupLocalStore();
+        } else {
+            setupSQLDatabase();
+        }
+
+        scheduledTasks.add(executor.scheduleWithFixedDelay(this::updateTopList, 0, 5, TimeUnit.MINUTES));
+
+        //write-behind of the modified stats without waiting for the main thread
+        scheduledTasks.add(executor.scheduleWithFixedDelay(this::flushModified
+                , FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.SECONDS));
+
+        //the top lists of the periods only need the days of the current periods
+        scheduledTasks.add(executor.scheduleWithFixedDelay(this::pruneHistory, 1, 60, TimeUnit.MINUTES));
+
+        //the replace manager is created again on every reload
+        plugin.getReplaceManager().register(new StatsVariables(plugin, this));
+        if (!listenersRegistered) {
+            //the listeners stay registered until the plugin is disabled
+            listenersRegistered = true;
+            registerEvents();
+        }
+
+        if (!unsaved.isEmpty()) {
+            if (isAvailable() && getStorageTarget().equals(previousTarget)) {
+                //the loaded ids are still valid, so they can be written to the reloaded storage
+                unsaved.forEach(this::queueSave);
+            } else {
+                //writing them to another storage would overwrite the stats of other players
+                plugin.getLogger().log(Level.WARNING, "Dropping {0} unsaved stats", unsaved.size());
             }
+        }
+    }
 
-            stmt.execute(createTableQuery);
-        } catch (Exception ex) {
-            plugin.getLogger().log(Level.SEVERE, "Error creating database ", ex);
-        } finally {
-            close(stmt);
-            close(conn);
+    private List<PlayerStats> closeStorage() {
+        //the ids of the loaded stats are only valid for the storage they were loaded from
+        loadExecutor.shutdown();
+        try {
+            loadExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            executor.submit(this::flushModified).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            plugin.getLogger().log(Level.SEVERE, "Interrupted while saving the stats", ex);
+        } catch (ExecutionException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Couldn't save the stats to the database", ex);
         }
 
-        executor.scheduleWithFixedDelay(this::updateTopList, 0, 5, TimeUnit.MINUTES);
+        //the stats that couldn't be written are kept until it's known if the storage is the same
+        List<PlayerStats> unsaved = Lists.newArrayList();
+        PlayerStats stats;
+        while ((stats = modifiedStats.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            unsaved.add(stats);
+        }
 
-        executor.scheduleWithFixedDelay(() -> {
-            if (dataSource == null) {
-                return;
+        //the online players are loaded again from the new storage
+        statsCache.clear();
+        preloadedStats.clear();
+
+        if (localStore != null) {
+            try {
+                localStore.close();
+            } catch (IOException ex) {
+                plugin.getLogger().log(Level.SEVERE, "Error closing the local stats storage", ex);
             }
 
-            Future<Collection<? extends Player>> syncPlayers = Bukkit.getScheduler()
-                    .callSyncMethod(plugin, BackwardsCompatibleUtil::getOnlinePlayers);
+            localStore = null;
+        }
 
-            try {
-                Collection<? extends Player> onlinePlayers = syncPlayers.get();
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
 
-                List<PlayerStats> toSave = onlinePlayers.stream()
-                        .map(this::getCachedStats)
-                        .filter(Objects::nonNull)
-                        .filter(PlayerStats::isModified)
-                        .collect(Collectors.toList());
+        upsertQuery = null;
+        historyUpsertQuery = null;
+        binaryUuids = false;
+        return unsaved;
+    }
 
-                if (!toSave.isEmpty()) {
-                    save(toSave);
-                }
-            } catch (CancellationException cancelEx) {
-                //ignore it on shutdown
-            } catch (Exception ex) {
-                plugin.getLogger().log(Level.SEVERE, null, ex);
+    private String getStorageTarget() {
+        if (localStore != null) {
+            return "local";
+        }
+
+        //the same database could be used with another key column or table prefix
+        return dbConfig.getServerConfig().getJdbcUrl() + '/' + tableName + '/' + dbConfig.isUuidUse();
+    }
+
+    private void setupLocalStore() {
+        LocalStatsStore store = new LocalStatsStore(plugin.getDataFolder().toPath().resolve("stats"));
+        try {
+            store.open();
+            localStore = store;
+        } catch (IOException ex) {
+            //the local files are kept untouched, so they can be recovered manually
+            plugin.getLogger().log(Level.SEVERE, "Error opening the local stats storage. "
+                    + "Using the SQL database of the sql.yml instead", ex);
+            setupSQLDatabase();
+        }
+    }
+
+    private void setupSQLDatabase() {
+        dataSource = new HikariDataSource(dbConfig.getServerConfig());
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            schema.migrate(conn);
+            if (dbConfig.isBinaryUuids() && dbConfig.isMySQL()) {
+                schema.convertUuidColumn(conn);
             }
-        }, 0, 1, TimeUnit.MINUTES);
 
-        registerEvents();
+            binaryUuids = schema.isBinaryUuid(conn);
+
+            upsertQuery = createUpsertQuery(conn);
+            historyUpsertQuery = createHistoryUpsertQuery(conn);
+        } catch (Exception ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error creating database ", ex);
+        } finally {
+            close(conn);
+        }
     }
 
     /**
@@ -378,8 +1156,39 @@ public class Database {
      * @return a iterable of the entries
      */
     public Collection<Map.Entry<String, Integer>> getTop() {
-        synchronized (toplist) {
-            return toplist.entrySet();
+        String topType = Settings.getTopType();
+        StatsPeriod period = StatsPeriod.fromVariable(topType);
+        if (period == null) {
+            return leaderboards.getTop(TopType.fromConfig(topType));
+        }
+
+        TopType type = TopType.fromConfig(period.stripSuffix(topType));
+        if (!type.isPeriodic()) {
+            //only the kills, deaths and mobkills are counted per period
+            return leaderboards.getTop(type);
+        }
+
+        return leaderboards.getTop(type, period);
+    }
+
+    /**
+     * Get the top lists of all categories
+     *
+     * @return the leaderboards
+     */
+    public Leaderboards getLeaderboards() {
+        return leaderboards;
+    }
+
+    /**
+     * Updates the toplist with the changed stats of an online player. The complete list will be synchronized with
+     * the database in an interval.
+     *
+     * @param stats the changed stats
+     */
+    public void updateTopEntry(PlayerStats stats) {
+        if (stats != null && stats.getPlayername() != null) {
+            leaderboards.update(stats, Settings.getTopitems());
         }
     }
 
@@ -387,59 +1196,241 @@ public class Database {
      * Updates the toplist
      */
     public void updateTopList() {
-        String type = Settings.getTopType();
-        Map<String, Integer> newToplist;
-        switch (type) {
-            case "killstreak":
-                newToplist = getTopList("killstreak", PlayerStats::getKillstreak);
-                break;
-            case "mob":
-                newToplist = getTopList("mobkills", PlayerStats::getMobkills);
-                break;
-            default:
-                newToplist = getTopList("kills", PlayerStats::getKills);
-                break;
+        if (!isAvailable()) {
+            return;
         }
 
-        synchronized (toplist) {
-            //set it after fetching so it's only blocking for a short time
-            toplist.clear();
-            toplist.putAll(newToplist);
-        }
-    }
+        Map<TopType, List<Map.Entry<String, Integer>>> topLists = new EnumMap<>(TopType.class);
+        if (localStore != null) {
+            for (TopType type : TopType.values()) {
+                topLists.put(type, localStore.getTopList(type, Settings.getTopitems()));
+            }
 
-    private Map<String, Integer> getTopList(String type, Function<PlayerStats, Integer> valueMapper) {
-        if (dataSource != null) {
-            Connection conn = null;
-            Statement stmt = null;
-            ResultSet resultSet = null;
-            try {
-                conn = dataSource.getConnection();
-                stmt = conn.createStatement();
+            leaderboards.replace(topLists);
+            return;
+        }
 
-                resultSet = stmt.executeQuery("SELECT * FROM player_stats "
-                        + "ORDER BY " + type + " desc "
-                        + "LIMIT " + Settings.getTopitems());
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            for (TopType type : TopType.values()) {
+                topLists.put(type, getTopList(conn, type));
+            }
 
-                List<PlayerStats> result = Lists.newArrayList();
-                for (int i = 0; i < Settings.getTopitems(); i++) {
-                    PlayerStats stats = extractPlayerStats(resultSet);
-                    if (!stats.isNew()) {
-                        result.add(stats);
+            //set it after fetching all so the readers see every category from the same run
+            leaderboards.replace(topLists);
+
+            //rollup of the daily history for the top lists of every period
+            LocalDate today = LocalDate.now();
+            Map<StatsPeriod, Map<TopType, List<Map.Entry<String, Integer>>>> periodLists
+                    = new EnumMap<>(StatsPeriod.class);
+            for (StatsPeriod period : StatsPeriod.values()) {
+                Map<TopType, List<Map.Entry<String, Integer>>> lists = new EnumMap<>(TopType.class);
+                for (TopType type : TopType.values()) {
+                    if (type.isPeriodic()) {
+                        lists.put(type, getPeriodTopList(conn, type, period.getStart(today)));
                     }
                 }
 
-                return result.stream().collect(Collectors.toMap(PlayerStats::getPlayername, valueMapper));
-            } catch (SQLException ex) {
-                plugin.getLogger().log(Level.SEVERE, "Error loading top list", ex);
-            } finally {
-                close(resultSet);
-                close(stmt);
-                close(conn);
+                periodLists.put(period, lists);
             }
+
+            leaderboards.replacePeriods(periodLists);
+        } catch (SQLException ex) {
+            plugin.getLogger().log(Level.SEVERE, "Error loading top list", ex);
+        } finally {
+            close(conn);
         }
+    }
+
+    /**
+     * Removes the history of the days which are not part of any current period anymore.
+     */
+    public void pruneHistory() {
+        if (dataSource == null) {
+            return;
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.prepareStatement("DELETE FROM " + historyTable + " WHERE day < ?");
+            stmt.setLong(1, StatsPeriod.getEarliestStart(LocalDate.now()).toEpochDay());
 
-        return Collections.emptyMap();
+            int removed = stmt.executeUpdate();
+            plugin.getLogger().log(Level.FINE, "Removed {0} days of the stats history", removed);
+        } catch (SQLException ex) {
+            plugin.getLogger().log(Level.WARNING, "Error removing the old stats history", ex);
+        } finally {
+            close(stmt);
+            close(conn);
+        }
+    }
+
+    private List<Map.Entry<String, Integer>> getPeriodTopList(Connection conn, TopType type, LocalDate start)
+            throws SQLException {
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            //the order expression of the periodic categories is the column name
+            stmt = conn.prepareStatement("SELECT MAX(playername), SUM(" + type.getOrderExpression() + ") AS total "
+                    + "FROM " + historyTable + " WHERE day >= ? "
+                    + "GROUP BY player ORDER BY total desc "
+                    + "LIMIT " + Settings.getTopitems());
+            stmt.setLong(1, start.toEpochDay());
+
+            resultSet = stmt.executeQuery();
+            List<Map.Entry<String, Integer>> result = Lists.newArrayListWithExpectedSize(Settings.getTopitems());
+            while (resultSet.next()) {
+                result.add(Maps.immutableEntry(resultSet.getString(1), resultSet.getInt(2)));
+            }
+
+            return result;
+        } finally {
+            close(resultSet);
+            close(stmt);
+        }
+    }
+
+    private List<Map.Entry<String, Integer>> getTopList(Connection conn, TopType type) throws SQLException {
+        Statement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            stmt = conn.createStatement();
+            resultSet = stmt.executeQuery("SELECT " + STATS_COLUMNS + " FROM " + tableName + ' '
+                    + "ORDER BY " + type.getOrderExpression() + " desc "
+                    + "LIMIT " + Settings.getTopitems());
+
+            List<Map.Entry<String, Integer>> result = Lists.newArrayListWithExpectedSize(Settings.getTopitems());
+            for (int i = 0; i < Settings.getTopitems(); i++) {
+                PlayerStats stats = extractPlayerStats(resultSet);
+                if (!stats.isNew()) {
+                    result.add(Maps.immutableEntry(stats.getPlayername(), type.getValue(stats)));
+                }
+            }
+
+            return result;
+        } finally {
+            close(resultSet);
+            close(stmt);
+        }
+    }
+
+    private String createUpsertQuery(Connection conn) {
+        String keyColumn = dbConfig.isUuidUse() ? "uuid" : "playername";
+        String insertQuery = "INSERT INTO " + tableName + ' '
+                + "(uuid, playername, kills, deaths, killstreak, mobkills, last_online) VALUES "
+                + "(?, ?, ?, ?, ?, ?, ?)";
+
+        String driver = dbConfig.getServerConfig().getDriverClassName();
+        boolean mysql = dbConfig.isMySQL();
+
+        String upsert;
+        if (mysql && dbConfig.isDeltaUpdates()) {
+            //the inserted values are only the changes of this server
+            upsert = insertQuery + " ON DUPLICATE KEY UPDATE "
+                    + "uuid=VALUES(uuid), playername=VALUES(playername), kills=kills+VALUES(kills), "
+                    + "deaths=deaths+VALUES(deaths), killstreak=GREATEST(killstreak, VALUES(killstreak)), "
+                    + "mobkills=mobkills+VALUES(mobkills), last_online=VALUES(last_online)";
+        } else if (mysql) {
+            upsert = insertQuery + " ON DUPLICATE KEY UPDATE "
+                    + "uuid=VALUES(uuid), playername=VALUES(playername), kills=VALUES(kills), deaths=VALUES(deaths), "
+                    + "killstreak=VALUES(killstreak), mobkills=VALUES(mobkills), last_online=VALUES(last_online)";
+        } else if (isSQLite() && !supportsOnConflict(conn)) {
+            //the upsert clause was added in SQLite 3.24
+            return null;
+        } else if (isSQLite() && dbConfig.isDeltaUpdates()) {
+            upsert = insertQuery + " ON CONFLICT(" + keyColumn + ") DO UPDATE SET "
+                    + "uuid=excluded.uuid, playername=excluded.playername, kills=kills+excluded.kills, "
+                    + "deaths=deaths+excluded.deaths, killstreak=MAX(killstreak, excluded.killstreak), "
+                    + "mobkills=mobkills+excluded.mobkills, last_online=excluded.last_online";
+        } else if (isSQLite()) {
+            upsert = insertQuery + " ON CONFLICT(" + keyColumn + ") DO UPDATE SET "
+                    + "uuid=excluded.uuid, playername=excluded.playername, kills=excluded.kills, "
+                    + "deaths=excluded.deaths, killstreak=excluded.killstreak, mobkills=excluded.mobkills, "
+                    + "last_online=excluded.last_online";
+        } else if (driver.contains("h2") && !dbConfig.isDeltaUpdates()) {
+            //merge can only replace the values
+            upsert = "MERGE INTO " + tableName + ' '
+                    + "(uuid, playername, kills, deaths, killstreak, mobkills, last_online) KEY (" + keyColumn + ") "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        } else {
+            return null;
+        }
+
+        try {
+            //already created by the migration unless there were duplicates
+            schema.createIndex(conn, keyColumn, true);
+        } catch (SQLException ex) {
+            //for example if there are already duplicate entries
+            plugin.getLogger().log(Level.WARNING, "Cannot create an unique index on " + keyColumn
+                    + ". Falling back to separate inserts and updates", ex);
+            return null;
+        }
+
+        PreparedStatement stmt = null;
+        try {
+            //fails early if the database doesn't understand this syntax
+            stmt = conn.prepareStatement(upsert);
+            return upsert;
+        } catch (SQLException ex) {
+            plugin.getLogger().log(Level.WARNING, "Upserts are not supported by this database. "
+                    + "Falling back to separate inserts and updates", ex);
+            return null;
+        } finally {
+            close(stmt);
+        }
+    }
+
+    private String createHistoryUpsertQuery(Connection conn) {
+        String insertQuery = "INSERT INTO " + historyTable + ' '
+                + "(player, day, playername, kills, deaths, mobkills) VALUES (?, ?, ?, ?, ?, ?)";
+
+        String upsert;
+        if (dbConfig.isMySQL()) {
+            upsert = insertQuery + " ON DUPLICATE KEY UPDATE playername=VALUES(playername), "
+                    + "kills=kills+VALUES(kills), deaths=deaths+VALUES(deaths), mobkills=mobkills+VALUES(mobkills)";
+        } else if (isSQLite() && supportsOnConflict(conn)) {
+            upsert = insertQuery + " ON CONFLICT(player, day) DO UPDATE SET playername=excluded.playername, "
+                    + "kills=kills+excluded.kills, deaths=deaths+excluded.deaths, mobkills=mobkills+excluded.mobkills";
+        } else {
+            //merge of H2 can only replace the values
+            return null;
+        }
+
+        PreparedStatement stmt = null;
+        try {
+            //fails early if the database doesn't understand this syntax
+            stmt = conn.prepareStatement(upsert);
+            return upsert;
+        } catch (SQLException ex) {
+            plugin.getLogger().log(Level.WARNING, "Upserts are not supported by this database. "
+                    + "Falling back to separate inserts and updates of the history", ex);
+            return null;
+        } finally {
+            close(stmt);
+        }
+    }
+
+    private boolean supportsOnConflict(Connection conn) {
+        try {
+            String[] version = conn.getMetaData().getDatabaseProductVersion().split("\\.");
+            int major = Integer.parseInt(version[0]);
+            int minor = version.length > 1 ? Integer.parseInt(version[1]) : 0;
+            return major > 3 || (major == 3 && minor >= 24);
+        } catch (SQLException | NumberFormatException ex) {
+            plugin.getLogger().log(Level.FINE, "Cannot read the SQLite version", ex);
+            return false;
+        }
+    }
+
+    private boolean isAvailable() {
+        return dataSource != null || localStore != null;
+    }
+
+    private boolean isSQLite() {
+        return dbConfig.getServerConfig().getDriverClassName().contains("sqlite");
     }
 
     private void registerEvents() {
@@ -452,7 +1443,6 @@ public class Database {
             new SignListener(plugin, "[Mob]", this);
         }
 
-        plugin.getReplaceManager().register(new StatsVariables(plugin, this));
         Bukkit.getPluginManager().registerEvents(new StatsListener(plugin, this), plugin);
     }
 
@@ -465,4 +1455,19 @@ public class Database {
             }
         }
     }
+
+    private static class HistoryRow {
+
+        private final String player;
+        private final long day;
+        private final String playerName;
+        private final StatsDelta delta;
+
+        HistoryRow(String player, long day, String playerName, StatsDelta delta) {
+            this.player = player;
+            this.day = day;
+            this.playerName = playerName;
+            this.delta = delta;
+        }
+    }
 }
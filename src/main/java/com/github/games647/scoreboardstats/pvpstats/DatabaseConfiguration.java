@@ -20,10 +20,16 @@ import java.util.logging.Level;
  */
 public class DatabaseConfiguration {
 
+    //at most so many threads load the stats of joining players
+    private static final int MAX_LOAD_THREADS = 4;
+
     private final Plugin plugin;
 
     private HikariConfig serverConfig;
     private boolean uuidUse;
+    private boolean deltaUpdates;
+    private boolean localStorage;
+    private boolean binaryUuids;
     private String tablePrefix;
 
     DatabaseConfiguration(Plugin instance) {
@@ -48,6 +54,54 @@ public class DatabaseConfiguration {
         return uuidUse;
     }
 
+    /**
+     * Get whether only the changes should be added to the saved stats instead of overwriting them. This is needed if
+     * multiple servers share the same table.
+     *
+     * @return whether the stats should be saved incremental
+     */
+    public boolean isDeltaUpdates() {
+        return deltaUpdates;
+    }
+
+    /**
+     * Get whether the stats should be stored in local files instead of the SQL database.
+     *
+     * @return whether the local storage should be used
+     */
+    public boolean isLocalStorage() {
+        return localStorage;
+    }
+
+    /**
+     * Get whether the uuids should be stored as 16 bytes instead of text. This is only supported by MySQL.
+     *
+     * @return whether the uuid column should be binary
+     */
+    public boolean isBinaryUuids() {
+        return binaryUuids;
+    }
+
+    /**
+     * Get the number of threads that load the stats of joining players. One connection of the pool is always left for
+     * the background tasks like saving and the top list.
+     *
+     * @return the number of loader threads
+     */
+    public int getLoadThreads() {
+        return Math.max(1, Math.min(MAX_LOAD_THREADS, serverConfig.getMaximumPoolSize() - 1));
+    }
+
+    /**
+     * Get whether the configured driver is for MySQL or MariaDB.
+     *
+     * @return whether the MySQL dialect is used
+     */
+    public boolean isMySQL() {
+        String driver = serverConfig.getDriverClassName();
+        return driver.contains("mysql") || driver.contains("mariadb");
+    }
+
     public String getTablePrefix() {
         return tablePrefix;
     }
@@ -79,16 +133,30 @@ public class DatabaseConfiguration {
             }
         }
 
+        deltaUpdates = sqlConfig.getBoolean("deltaUpdates", false);
+        localStorage = sqlConfig.getBoolean("localStorage", false);
+        binaryUuids = sqlConfig.getBoolean("binaryUuids", false);
+
         ConfigurationSection sqlSettingSection = sqlConfig.getConfigurationSection("SQL-Settings");
         serverConfig.setUsername(sqlSettingSection.getString("Username"));
         serverConfig.setPassword(sqlSettingSection.getString("Password"));
         serverConfig.setDriverClassName(sqlSettingSection.getString("Driver"));
         serverConfig.setJdbcUrl(replaceUrlString(sqlSettingSection.getString("Url")));
+        serverConfig.setMaximumPoolSize(Math.max(2, sqlSettingSection.getInt("MaxConnections", 10)));
         if (serverConfig.getDriverClassName().contains("sqlite")) {
             serverConfig.setConnectionTestQuery("SELECT 1");
         }
 
-        tablePrefix = sqlSettingSection.getString("tablePrefix", "");
+        if (isMySQL()) {
+            //cache the prepared statements of every connection - the stats are loaded with the same query on every join
+            serverConfig.addDataSourceProperty("cachePrepStmts", "true");
+            serverConfig.addDataSourceProperty("prepStmtCacheSize", "250");
+            serverConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            serverConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        }
+
+        //the prefix is part of the queries, so only allow valid identifiers
+        tablePrefix = sqlSettingSection.getString("tablePrefix", "").replaceAll("[^\\w]", "");
     }
 
     private String replaceUrlString(String input) {
@@ -0,0 +1,139 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Represents the top lists of all categories. The lists are immutable snapshots which are replaced as a whole, so
+ * readers never block and never see a partially updated list.
+ *
+ * @see TopType
+ */
+public class Leaderboards {
+
+    private final AtomicReference<Map<TopType, List<Map.Entry<String, Integer>>>> snapshot
+            = new AtomicReference<>(ImmutableMap.of());
+
+    //aggregated from the stats history, so they are only replaced in an interval
+    private final AtomicReference<Map<StatsPeriod, Map<TopType, List<Map.Entry<String, Integer>>>>> periodSnapshot
+            = new AtomicReference<>(ImmutableMap.of());
+
+    /**
+     * Get the best players of a category sorted descending.
+     *
+     * @param type the category
+     * @return immutable list of the player names and their values
+     */
+    public List<Map.Entry<String, Integer>> getTop(TopType type) {
+        List<Map.Entry<String, Integer>> topList = snapshot.get().get(type);
+        if (topList == null) {
+            return Collections.emptyList();
+        }
+
+        return topList;
+    }
+
+    /**
+     * Get the best players of a category in the current time period sorted descending.
+     *
+     * @param type the category
+     * @param period the time period
+     * @return immutable list of the player names and their values in this period
+     */
+    public List<Map.Entry<String, Integer>> getTop(TopType type, StatsPeriod period) {
+        Map<TopType, List<Map.Entry<String, Integer>>> topLists = periodSnapshot.get().get(period);
+        if (topLists == null || !topLists.containsKey(type)) {
+            return Collections.emptyList();
+        }
+
+        return topLists.get(type);
+    }
+
+    /**
+     * Replaces all top lists of the time periods with the aggregated results from the database.
+     *
+     * @param topLists the sorted top lists for every period and category
+     */
+    void replacePeriods(Map<StatsPeriod, Map<TopType, List<Map.Entry<String, Integer>>>> topLists) {
+        Map<StatsPeriod, Map<TopType, List<Map.Entry<String, Integer>>>> newSnapshot = new EnumMap<>(StatsPeriod.class);
+        topLists.forEach((period, periodLists) -> {
+            Map<TopType, List<Map.Entry<String, Integer>>> copy = new EnumMap<>(TopType.class);
+            periodLists.forEach((type, entries) -> copy.put(type, ImmutableList.copyOf(entries)));
+            newSnapshot.put(period, Collections.unmodifiableMap(copy));
+        });
+
+        periodSnapshot.set(Collections.unmodifiableMap(newSnapshot));
+    }
+
+    /**
+     * Replaces all top lists with the results from the database.
+     *
+     * @param topLists the sorted top lists for every category
+     */
+    void replace(Map<TopType, List<Map.Entry<String, Integer>>> topLists) {
+        Map<TopType, List<Map.Entry<String, Integer>>> newSnapshot = new EnumMap<>(TopType.class);
+        topLists.forEach((type, entries) -> newSnapshot.put(type, ImmutableList.copyOf(entries)));
+        snapshot.set(Collections.unmodifiableMap(newSnapshot));
+    }
+
+    /**
+     * Updates the entry of these stats in all categories.
+     *
+     * @param stats the changed stats
+     * @param size the max size of each top list
+     */
+    void update(PlayerStats stats, int size) {
+        String playerName = stats.getPlayername();
+        snapshot.updateAndGet(oldSnapshot -> {
+            Map<TopType, List<Map.Entry<String, Integer>>> newSnapshot = new EnumMap<>(TopType.class);
+            for (TopType type : TopType.values()) {
+                List<Map.Entry<String, Integer>> oldList = oldSnapshot.get(type);
+                if (oldList == null) {
+                    oldList = Collections.emptyList();
+                }
+
+                newSnapshot.put(type, insert(oldList, playerName, type.getValue(stats), size));
+            }
+
+            return Collections.unmodifiableMap(newSnapshot);
+        });
+    }
+
+    private List<Map.Entry<String, Integer>> insert(List<Map.Entry<String, Integer>> oldList
+            , String playerName, int value, int size) {
+        List<Map.Entry<String, Integer>> newList = Lists.newArrayListWithCapacity(oldList.size() + 1);
+
+        boolean inserted = false;
+        for (Map.Entry<String, Integer> entry : oldList) {
+            if (entry.getKey().equals(playerName)) {
+                //the old value of this player
+                continue;
+            }
+
+            if (!inserted && value > entry.getValue()) {
+                newList.add(Maps.immutableEntry(playerName, value));
+                inserted = true;
+            }
+
+            newList.add(entry);
+        }
+
+        if (!inserted) {
+            newList.add(Maps.immutableEntry(playerName, value));
+        }
+
+        if (newList.size() > size) {
+            return ImmutableList.copyOf(newList.subList(0, size));
+        }
+
+        return ImmutableList.copyOf(newList);
+    }
+}
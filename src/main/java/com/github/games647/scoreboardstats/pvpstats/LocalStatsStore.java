@@ -0,0 +1,383 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Represents a local stats storage for a single server. Every player has a fixed-width record in a memory-mapped
+ * file. Changes are appended to a log file before they are written into the mapped file, so they can be recovered
+ * after a crash. The log is cleared after the mapped file was forced to the disk.
+ */
+class LocalStatsStore {
+
+    private static final int MAGIC = 0x53425354;
+    private static final int VERSION = 1;
+
+    //magic, version, record count and a reserved int
+    private static final int HEADER_SIZE = 16;
+
+    //uuid (16), kills, deaths, mobkills, killstreak (16), last online (8), name length (1), name (23)
+    private static final int RECORD_SIZE = 64;
+    private static final int MAX_NAME_LENGTH = 23;
+
+    //slot number and the record
+    private static final int LOG_ENTRY_SIZE = 4 + RECORD_SIZE;
+
+    private static final int MIN_CAPACITY = 1_024;
+
+    //checkpoint if the log grows bigger than this
+    private static final long MAX_LOG_SIZE = 1_024 * 1_024;
+
+    private final Path dataFile;
+    private final Path logFile;
+
+    private final Map<UUID, Integer> uuidIndex = Maps.newHashMap();
+    private final Map<String, Integer> nameIndex = Maps.newHashMap();
+
+    private FileChannel dataChannel;
+    private FileChannel logChannel;
+    private MappedByteBuffer records;
+
+    private int capacity;
+    private int recordCount;
+
+    LocalStatsStore(Path directory) {
+        this.dataFile = directory.resolve("stats.dat");
+        this.logFile = directory.resolve("stats.log");
+    }
+
+    /**
+     * Opens the files, recovers the changes of the log and builds the index.
+     *
+     * @throws IOException if the files couldn't be read or have an invalid format
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(dataFile.getParent());
+
+        dataChannel = FileChannel.open(dataFile, StandardOpenOption.CREATE
+                , StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            logChannel = FileChannel.open(logFile, StandardOpenOption.CREATE
+                    , StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            if (dataChannel.size() < HEADER_SIZE) {
+                //new file
+                map(MIN_CAPACITY);
+                records.putInt(0, MAGIC);
+                records.putInt(4, VERSION);
+                records.putInt(8, 0);
+            } else {
+                map(Math.max(MIN_CAPACITY, (int) ((dataChannel.size() - HEADER_SIZE) / RECORD_SIZE)));
+                if (records.getInt(0) != MAGIC || records.getInt(4) != VERSION) {
+                    throw new IOException("Invalid stats file " + dataFile);
+                }
+            }
+
+            recordCount = records.getInt(8);
+            replayLog();
+
+            for (int slot = 0; slot < recordCount; slot++) {
+                addToIndex(slot);
+            }
+        } catch (IOException | RuntimeException ex) {
+            //don't keep the files open
+            try {
+                closeChannels();
+            } catch (IOException closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * Get the stats by the uuid or the player name.
+     *
+     * @param uniqueId the uuid or the player name
+     * @return the stored stats or new stats if there are none
+     */
+    public synchronized PlayerStats load(Object uniqueId) {
+        Integer slot;
+        if (uniqueId instanceof UUID) {
+            slot = uuidIndex.get(uniqueId);
+        } else {
+            slot = nameIndex.get(uniqueId.toString().toLowerCase(Locale.ENGLISH));
+        }
+
+        if (slot == null) {
+            //If there are no existing stat create a new object with empty stats
+            return new PlayerStats();
+        }
+
+        return readRecord(slot);
+    }
+
+    /**
+     * Writes these stats. New stats get a slot assigned which is used as their id.
+     *
+     * @param stats the stats to save
+     * @throws IOException if the change log couldn't be written
+     */
+    public synchronized void save(Collection<PlayerStats> stats) throws IOException {
+        //assign the slots first, so the log contains the complete batch
+        int[] slots = new int[stats.size()];
+        int newCount = recordCount;
+
+        ByteBuffer logBuffer = ByteBuffer.allocate(stats.size() * LOG_ENTRY_SIZE);
+        int index = 0;
+        for (PlayerStats stat : stats) {
+            int slot = getSlot(stat);
+            if (slot == -1) {
+                slot = newCount++;
+            }
+
+            slots[index++] = slot;
+            logBuffer.putInt(slot);
+            writeRecord(logBuffer, stat);
+        }
+
+        //the changes are durable after the log is forced
+        logBuffer.flip();
+        while (logBuffer.hasRemaining()) {
+            logChannel.write(logBuffer, logChannel.size());
+        }
+
+        logChannel.force(false);
+
+        index = 0;
+        for (PlayerStats stat : stats) {
+            int slot = slots[index++];
+            stat.setId(slot + 1);
+            putRecord(slot, stat);
+        }
+
+        if (logChannel.size() >= MAX_LOG_SIZE) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Get the best players of a category sorted descending.
+     *
+     * @param type the category
+     * @param size the max size of the list
+     * @return the player names and their values
+     */
+    public synchronized List<Map.Entry<String, Integer>> getTopList(TopType type, int size) {
+        //keeps the best entries - the worst of them is the head
+        PriorityQueue<Map.Entry<String, Integer>> best = new PriorityQueue<>(size + 1, Map.Entry.comparingByValue());
+        for (int slot = 0; slot < recordCount; slot++) {
+            PlayerStats stats = readRecord(slot);
+            best.add(Maps.immutableEntry(stats.getPlayername(), type.getValue(stats)));
+            if (best.size() > size) {
+                best.poll();
+            }
+        }
+
+        List<Map.Entry<String, Integer>> result = Lists.newArrayList(best);
+        result.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        return result;
+    }
+
+    /**
+     * Forces all changes to the disk and closes the files.
+     *
+     * @throws IOException if the changes couldn't be forced to the disk
+     */
+    public synchronized void close() throws IOException {
+        if (dataChannel != null) {
+            try {
+                checkpoint();
+            } finally {
+                closeChannels();
+            }
+        }
+    }
+
+    private void closeChannels() throws IOException {
+        try {
+            dataChannel.close();
+        } finally {
+            if (logChannel != null) {
+                logChannel.close();
+            }
+
+            dataChannel = null;
+            logChannel = null;
+            records = null;
+        }
+    }
+
+    private void checkpoint() throws IOException {
+        records.force();
+        logChannel.truncate(0);
+        logChannel.force(true);
+    }
+
+    private void replayLog() throws IOException {
+        ByteBuffer logBuffer = ByteBuffer.allocate((int) logChannel.size());
+        while (logBuffer.hasRemaining() && logChannel.read(logBuffer, logBuffer.position()) != -1) {
+            //read everything
+        }
+
+        logBuffer.flip();
+
+        //an incomplete entry at the end wasn't forced before the crash, so it wasn't saved
+        while (logBuffer.remaining() >= LOG_ENTRY_SIZE) {
+            int slot = logBuffer.getInt();
+            ensureCapacity(slot + 1);
+
+            records.position(HEADER_SIZE + slot * RECORD_SIZE);
+            ByteBuffer record = logBuffer.slice();
+            record.limit(RECORD_SIZE);
+            records.put(record);
+            logBuffer.position(logBuffer.position() + RECORD_SIZE);
+
+            recordCount = Math.max(recordCount, slot + 1);
+        }
+
+        records.putInt(8, recordCount);
+        checkpoint();
+    }
+
+    private int getSlot(PlayerStats stats) {
+        if (!stats.isNew()) {
+            return stats.getId() - 1;
+        }
+
+        //maybe the stats were created before the existing ones were loaded
+        Integer slot = null;
+        if (stats.getUuid() != null) {
+            slot = uuidIndex.get(stats.getUuid());
+        } else if (stats.getPlayername() != null) {
+            slot = nameIndex.get(stats.getPlayername().toLowerCase(Locale.ENGLISH));
+        }
+
+        return slot == null ? -1 : slot;
+    }
+
+    private void putRecord(int slot, PlayerStats stats) throws IOException {
+        ensureCapacity(slot + 1);
+        if (slot < recordCount) {
+            //the player could be renamed
+            String oldName = readRecord(slot).getPlayername();
+            if (oldName != null) {
+                nameIndex.remove(oldName.toLowerCase(Locale.ENGLISH), slot);
+            }
+        }
+
+        records.position(HEADER_SIZE + slot * RECORD_SIZE);
+        writeRecord(records, stats);
+
+        if (slot >= recordCount) {
+            recordCount = slot + 1;
+            records.putInt(8, recordCount);
+        }
+
+        addToIndex(slot);
+    }
+
+    private void addToIndex(int slot) {
+        PlayerStats stats = readRecord(slot);
+        if (stats.getUuid() != null) {
+            uuidIndex.put(stats.getUuid(), slot);
+        }
+
+        if (stats.getPlayername() != null) {
+            nameIndex.put(stats.getPlayername().toLowerCase(Locale.ENGLISH), slot);
+        }
+    }
+
+    private PlayerStats readRecord(int slot) {
+        int offset = HEADER_SIZE + slot * RECORD_SIZE;
+
+        long mostBits = records.getLong(offset);
+        long leastBits = records.getLong(offset + 8);
+        UUID uuid = null;
+        if (mostBits != 0 || leastBits != 0) {
+            uuid = new UUID(mostBits, leastBits);
+        }
+
+        int kills = records.getInt(offset + 16);
+        int deaths = records.getInt(offset + 20);
+        int mobkills = records.getInt(offset + 24);
+        int killstreak = records.getInt(offset + 28);
+        long lastOnline = records.getLong(offset + 32);
+
+        int nameLength = records.get(offset + 40);
+        String playerName = null;
+        if (nameLength > 0) {
+            byte[] nameBytes = new byte[nameLength];
+            for (int i = 0; i < nameLength; i++) {
+                nameBytes[i] = records.get(offset + 41 + i);
+            }
+
+            playerName = new String(nameBytes, StandardCharsets.UTF_8);
+        }
+
+        return new PlayerStats(slot + 1, uuid, playerName, kills, deaths, mobkills, killstreak, lastOnline);
+    }
+
+    private void writeRecord(ByteBuffer buffer, PlayerStats stats) {
+        UUID uuid = stats.getUuid();
+        buffer.putLong(uuid == null ? 0 : uuid.getMostSignificantBits());
+        buffer.putLong(uuid == null ? 0 : uuid.getLeastSignificantBits());
+
+        buffer.putInt(stats.getKills());
+        buffer.putInt(stats.getDeaths());
+        buffer.putInt(stats.getMobkills());
+        buffer.putInt(stats.getKillstreak());
+        buffer.putLong(stats.getLastOnline());
+
+        byte[] nameBytes = encodeName(stats.getPlayername());
+        buffer.put((byte) nameBytes.length);
+        buffer.put(nameBytes);
+        //padding
+        buffer.put(new byte[MAX_NAME_LENGTH - nameBytes.length]);
+    }
+
+    private byte[] encodeName(String playerName) {
+        if (playerName == null) {
+            return new byte[0];
+        }
+
+        String name = playerName;
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        while (nameBytes.length > MAX_NAME_LENGTH) {
+            //only possible with non-ascii names of offline mode servers
+            name = name.substring(0, name.length() - 1);
+            nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        }
+
+        return nameBytes;
+    }
+
+    private void ensureCapacity(int minCapacity) throws IOException {
+        if (minCapacity > capacity) {
+            map(Math.max(minCapacity, capacity * 2));
+        }
+    }
+
+    private void map(int newCapacity) throws IOException {
+        //mapping a bigger region than the file extends the file
+        capacity = newCapacity;
+        records = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+    }
+}
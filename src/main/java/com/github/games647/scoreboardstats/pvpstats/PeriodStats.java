@@ -0,0 +1,169 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import com.google.common.collect.Maps;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Represents the kills, deaths and mobkills of a player per day. Only the days of the current periods are kept, so
+ * the values of a day, week or month are summed up in memory.
+ *
+ * @see StatsPeriod
+ */
+public class PeriodStats {
+
+    private static final int KILLS = 0;
+    private static final int DEATHS = 1;
+    private static final int MOBKILLS = 2;
+
+    private final Clock clock;
+
+    private final Map<LocalDate, int[]> days = Maps.newHashMapWithExpectedSize(8);
+
+    //changes since the last save by the day they happened, so a save after midnight adds them to the right day
+    private final Map<LocalDate, int[]> unsaved = Maps.newHashMapWithExpectedSize(2);
+
+    public PeriodStats() {
+        this(Clock.systemDefaultZone());
+    }
+
+    PeriodStats(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Get the kills of the current period.
+     *
+     * @param period the time period
+     * @return the kills in this period
+     */
+    public int getKills(StatsPeriod period) {
+        return sum(period, KILLS);
+    }
+
+    /**
+     * Get the deaths of the current period.
+     *
+     * @param period the time period
+     * @return the deaths in this period
+     */
+    public int getDeaths(StatsPeriod period) {
+        return sum(period, DEATHS);
+    }
+
+    /**
+     * Get the mob kills of the current period.
+     *
+     * @param period the time period
+     * @return the mob kills in this period
+     */
+    public int getMobkills(StatsPeriod period) {
+        return sum(period, MOBKILLS);
+    }
+
+    /**
+     * Get the value of the current period for a top list category.
+     *
+     * @param type the category
+     * @param period the time period
+     * @return the value in this period
+     */
+    public int getValue(TopType type, StatsPeriod period) {
+        switch (type) {
+            case DEATHS:
+                return getDeaths(period);
+            case MOBKILLS:
+                return getMobkills(period);
+            case KILLS:
+            default:
+                return getKills(period);
+        }
+    }
+
+    void onKill() {
+        change(LocalDate.now(clock), 1, 0, 0);
+    }
+
+    void onDeath() {
+        change(LocalDate.now(clock), 0, 1, 0);
+    }
+
+    void onMobKill() {
+        change(LocalDate.now(clock), 0, 0, 1);
+    }
+
+    /**
+     * Get the changes since the last save and resets them.
+     *
+     * @return the unsaved changes by their day
+     */
+    synchronized Map<LocalDate, StatsDelta> takeUnsaved() {
+        Map<LocalDate, StatsDelta> result = Maps.newHashMapWithExpectedSize(unsaved.size());
+        for (Map.Entry<LocalDate, int[]> entry : unsaved.entrySet()) {
+            int[] values = entry.getValue();
+            result.put(entry.getKey(), new StatsDelta(values[KILLS], values[DEATHS], values[MOBKILLS]));
+        }
+
+        unsaved.clear();
+        return result;
+    }
+
+    /**
+     * Adds the changes back if they couldn't be saved.
+     *
+     * @param changes the unsaved changes by their day
+     */
+    synchronized void restoreUnsaved(Map<LocalDate, StatsDelta> changes) {
+        changes.forEach((day, delta) -> addTo(unsaved, day, delta.getKills(), delta.getDeaths(), delta.getMobkills()));
+    }
+
+    private synchronized void change(LocalDate day, int kills, int deaths, int mobkills) {
+        add(day, kills, deaths, mobkills);
+        addTo(unsaved, day, kills, deaths, mobkills);
+    }
+
+    /**
+     * Adds the saved values of a day.
+     *
+     * @param day the day
+     * @param kills the kills of this day
+     * @param deaths the deaths of this day
+     * @param mobkills the mob kills of this day
+     */
+    synchronized void add(LocalDate day, int kills, int deaths, int mobkills) {
+        boolean newDay = !days.containsKey(day);
+        addTo(days, day, kills, deaths, mobkills);
+        if (newDay) {
+            //drop the days which are not part of any current period anymore
+            LocalDate earliest = StatsPeriod.getEarliestStart(LocalDate.now(clock));
+            days.keySet().removeIf(earliest::isAfter);
+        }
+    }
+
+    private void addTo(Map<LocalDate, int[]> target, LocalDate day, int kills, int deaths, int mobkills) {
+        int[] values = target.get(day);
+        if (values == null) {
+            values = new int[3];
+            target.put(day, values);
+        }
+
+        values[KILLS] += kills;
+        values[DEATHS] += deaths;
+        values[MOBKILLS] += mobkills;
+    }
+
+    private synchronized int sum(StatsPeriod period, int column) {
+        LocalDate start = period.getStart(LocalDate.now(clock));
+
+        int sum = 0;
+        for (Map.Entry<LocalDate, int[]> entry : days.entrySet()) {
+            if (!entry.getKey().isBefore(start)) {
+                sum += entry.getValue()[column];
+            }
+        }
+
+        return sum;
+    }
+}
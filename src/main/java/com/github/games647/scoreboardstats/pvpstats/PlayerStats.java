@@ -5,6 +5,9 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.bukkit.util.NumberConversions;
 
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Represents the stats from a player. The stats are kills, deaths, mobkills and killstreak. All stats are annotated to
@@ -33,7 +36,18 @@ public class PlayerStats {
     private long lastOnline;
 
     private transient int laststreak;
-    private transient boolean modified;
+    //set by the main thread and reset by the database thread if the stats will be saved
+    private final transient AtomicBoolean modified = new AtomicBoolean();
+    //notified once if the stats become modified after they were saved
+    private transient Consumer<PlayerStats> modifiedListener;
+
+    //changes since the last save for incremental updates
+    private final transient AtomicInteger unsavedKills = new AtomicInteger();
+    private final transient AtomicInteger unsavedDeaths = new AtomicInteger();
+    private final transient AtomicInteger unsavedMobkills = new AtomicInteger();
+
+    //kills, deaths and mobkills of the current day, week and month
+    private final transient PeriodStats periodStats = new PeriodStats();
 
     public PlayerStats(int id, UUID uuid, String playername,
             int kills, int deaths, int mobkills, int killstreak, long lastOnline) {
@@ -186,42 +200,106 @@ public class PlayerStats {
         this.lastOnline = lastOnline;
     }
 
+    /**
+     * Get the stats of the current time periods
+     *
+     * @return the stats per period
+     */
+    public PeriodStats getPeriodStats() {
+        return periodStats;
+    }
+
     /**
      * Increment the kills
      */
     public void onKill() {
-        modified = true;
-
         //We need to use this to trigger ebean
         kills++;
+        unsavedKills.incrementAndGet();
+        periodStats.onKill();
 
         laststreak++;
         if (laststreak > killstreak) {
             killstreak = laststreak;
         }
+
+        markModified();
     }
 
     /**
      * Increment the mob kills
      */
     public void onMobKill() {
-        modified = true;
-
         mobkills++;
+        unsavedMobkills.incrementAndGet();
+        periodStats.onMobKill();
+
+        markModified();
     }
 
     /**
      * Increment the deaths
      */
     public void onDeath() {
-        modified = true;
-
         laststreak = 0;
         deaths++;
+        unsavedDeaths.incrementAndGet();
+        periodStats.onDeath();
+
+        markModified();
     }
 
     public boolean isModified() {
-        return modified;
+        return modified.get();
+    }
+
+    /**
+     * Sets the listener that will be notified if these stats have unsaved changes again.
+     *
+     * @param modifiedListener the listener or null
+     */
+    void setModifiedListener(Consumer<PlayerStats> modifiedListener) {
+        this.modifiedListener = modifiedListener;
+    }
+
+    /**
+     * Marks these stats as saved.
+     *
+     * @return whether the stats were modified before
+     */
+    boolean resetModified() {
+        return modified.getAndSet(false);
+    }
+
+    /**
+     * Get the changes since the last save and resets them.
+     *
+     * @return the unsaved changes
+     */
+    StatsDelta takeDelta() {
+        return new StatsDelta(unsavedKills.getAndSet(0), unsavedDeaths.getAndSet(0), unsavedMobkills.getAndSet(0)
+                , periodStats.takeUnsaved());
+    }
+
+    /**
+     * Adds the changes back if they couldn't be saved, so they will be saved with the next run.
+     *
+     * @param delta the unsaved changes
+     */
+    void restoreDelta(StatsDelta delta) {
+        unsavedKills.addAndGet(delta.getKills());
+        unsavedDeaths.addAndGet(delta.getDeaths());
+        unsavedMobkills.addAndGet(delta.getMobkills());
+        periodStats.restoreUnsaved(delta.getDays());
+
+        markModified();
+    }
+
+    private void markModified() {
+        //only notify on the first change, so the stats are queued only once until they are saved
+        if (modified.compareAndSet(false, true) && modifiedListener != null) {
+            modifiedListener.accept(this);
+        }
     }
 
     public boolean isNew() {
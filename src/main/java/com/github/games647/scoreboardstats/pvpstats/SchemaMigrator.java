@@ -0,0 +1,329 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates and upgrades the tables of the stats database. Every migration is applied only once and the applied
+ * versions are stored in a separate table. All migrations are written to work on existing installs without a version
+ * table too.
+ */
+class SchemaMigrator {
+
+    private static final String LEGACY_TABLE = "player_stats";
+
+    private static final String COLUMNS = "uuid, playername, kills, deaths, mobkills, killstreak, last_online";
+
+    //the top list is sorted by one of these columns
+    private static final String[] RANKED_COLUMNS = {"kills", "deaths", "killstreak", "mobkills"};
+
+    private final Logger logger;
+
+    private final String tableName;
+    private final String versionTable;
+    private final String historyTable;
+    private final String keyColumn;
+
+    private final boolean mysql;
+    private final boolean sqlite;
+
+    SchemaMigrator(Logger logger, String tablePrefix, String keyColumn, boolean mysql, boolean sqlite) {
+        this.logger = logger;
+        this.tableName = tablePrefix + LEGACY_TABLE;
+        this.versionTable = tablePrefix + "stats_schema";
+        this.historyTable = tablePrefix + "stats_history";
+        this.keyColumn = keyColumn;
+        this.mysql = mysql;
+        this.sqlite = sqlite;
+    }
+
+    /**
+     * Get the name of the stats table including the configured prefix.
+     *
+     * @return the table name
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Get the name of the table with the stats per day including the configured prefix.
+     *
+     * @return the table name
+     */
+    public String getHistoryTableName() {
+        return historyTable;
+    }
+
+    /**
+     * Applies all missing migrations.
+     *
+     * @param conn the database connection
+     * @throws SQLException if a migration failed. The following migrations won't be applied.
+     */
+    public void migrate(Connection conn) throws SQLException {
+        execute(conn, "CREATE TABLE IF NOT EXISTS " + versionTable + " ( version integer not null )");
+
+        int version = getVersion(conn);
+        if (version < 1) {
+            createTable(conn);
+            setVersion(conn, 1);
+        }
+
+        if (version < 2) {
+            for (String rankedColumn : RANKED_COLUMNS) {
+                try {
+                    createIndex(conn, rankedColumn, false);
+                } catch (SQLException ex) {
+                    //the top lists still work without it - only slower
+                    logger.log(Level.WARNING, "Cannot create an index on " + rankedColumn, ex);
+                }
+            }
+
+            setVersion(conn, 2);
+        }
+
+        if (version < 3) {
+            //every join looks up the stats by this column
+            createLookupIndex(conn);
+            setVersion(conn, 3);
+        }
+
+        if (version < 4) {
+            //the player is identified like in the stats table, the name is only for the top lists
+            execute(conn, "CREATE TABLE IF NOT EXISTS " + historyTable + " ( "
+                    + "player varchar(40) not null, "
+                    + "day integer not null, "
+                    + "playername varchar(16) not null, "
+                    + "kills integer not null, "
+                    + "deaths integer not null, "
+                    + "mobkills integer not null, "
+                    + "PRIMARY KEY (player, day) )");
+            //the top lists of the periods are aggregated by the day
+            createIndex(conn, historyTable, "day", historyTable + "_day_idx", false);
+            setVersion(conn, 4);
+        }
+    }
+
+    /**
+     * Creates an index for the column of the stats table if it doesn't exist.
+     *
+     * @param conn the database connection
+     * @param column the indexed column
+     * @param unique whether the values have to be unique
+     * @throws SQLException if the index couldn't be created. For example if there are duplicate values.
+     */
+    public void createIndex(Connection conn, String column, boolean unique) throws SQLException {
+        createIndex(conn, tableName, column, getIndexName(column, unique), unique);
+    }
+
+    /**
+     * Converts the text uuids to 16 bytes. This is only supported for MySQL. Every step checks the current columns, so
+     * an interrupted conversion continues on the next start.
+     *
+     * @param conn the database connection
+     * @throws SQLException if the column couldn't be converted
+     */
+    public void convertUuidColumn(Connection conn) throws SQLException {
+        if (isBinaryUuid(conn)) {
+            return;
+        }
+
+        logger.info("Converting the uuids to binary. This could take a while");
+        if (hasColumn(conn, "uuid") && !hasColumn(conn, "uuid_bin")) {
+            execute(conn, "ALTER TABLE " + tableName + " ADD COLUMN uuid_bin BINARY(16) AFTER uuid");
+        }
+
+        if (hasColumn(conn, "uuid")) {
+            execute(conn, "UPDATE " + tableName + " SET uuid_bin = UNHEX(REPLACE(uuid, '-', '')) "
+                    + "WHERE uuid IS NOT NULL");
+            //the indexes of this column are dropped too
+            execute(conn, "ALTER TABLE " + tableName + " DROP COLUMN uuid");
+        }
+
+        execute(conn, "ALTER TABLE " + tableName + " CHANGE COLUMN uuid_bin uuid BINARY(16) AFTER id");
+        if ("uuid".equals(keyColumn)) {
+            createLookupIndex(conn);
+        }
+    }
+
+    /**
+     * Check whether the uuids are stored as bytes.
+     *
+     * @param conn the database connection
+     * @return whether the uuid column is binary
+     * @throws SQLException if the columns couldn't be fetched
+     */
+    public boolean isBinaryUuid(Connection conn) throws SQLException {
+        int dataType = getColumnType(conn, "uuid");
+        return dataType == Types.BINARY || dataType == Types.VARBINARY;
+    }
+
+    private boolean hasColumn(Connection conn, String column) throws SQLException {
+        return getColumnType(conn, column) != Types.NULL;
+    }
+
+    private int getColumnType(Connection conn, String column) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        //some databases store the names in upper case
+        for (String table : new String[]{tableName, tableName.toUpperCase(Locale.ENGLISH)}) {
+            ResultSet columns = null;
+            try {
+                columns = metaData.getColumns(null, null, table, null);
+                while (columns.next()) {
+                    if (column.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        return columns.getInt("DATA_TYPE");
+                    }
+                }
+            } finally {
+                close(columns);
+            }
+        }
+
+        return Types.NULL;
+    }
+
+    private void createTable(Connection conn) throws SQLException {
+        boolean upgradeLegacy = !tableName.equals(LEGACY_TABLE)
+                && !tableExists(conn, tableName) && tableExists(conn, LEGACY_TABLE);
+
+        String createTableQuery = "CREATE TABLE IF NOT EXISTS " + tableName + " ( "
+                + "id integer PRIMARY KEY AUTO_INCREMENT, "
+                + "uuid varchar(40), "
+                + "playername varchar(16) not null, "
+                + "kills integer not null, "
+                + "deaths integer not null, "
+                + "mobkills integer not null, "
+                + "killstreak integer not null, "
+                + "last_online timestamp not null )";
+
+        if (sqlite) {
+            createTableQuery = createTableQuery.replace("AUTO_INCREMENT", "");
+        }
+
+        execute(conn, createTableQuery);
+
+        if (upgradeLegacy) {
+            //the prefix wasn't used by the previous versions, so keep the existing stats
+            logger.log(Level.INFO, "Copying the stats from {0} to {1}", new Object[]{LEGACY_TABLE, tableName});
+            execute(conn, "INSERT INTO " + tableName + " (" + COLUMNS + ") "
+                    + "SELECT " + COLUMNS + " FROM " + LEGACY_TABLE);
+        }
+    }
+
+    private void createLookupIndex(Connection conn) throws SQLException {
+        try {
+            createIndex(conn, keyColumn, true);
+        } catch (SQLException ex) {
+            //for example if there are already duplicate entries
+            logger.log(Level.WARNING, "Cannot create an unique index on " + keyColumn
+                    + ". Creating a non-unique index instead", ex);
+            createIndex(conn, tableName, keyColumn, getIndexName(keyColumn + "_lookup", false), false);
+        }
+    }
+
+    private void createIndex(Connection conn, String table, String column, String indexName, boolean unique)
+            throws SQLException {
+        //mysql doesn't support IF NOT EXISTS for indexes
+        if (mysql && hasIndex(conn, table, indexName)) {
+            return;
+        }
+
+        execute(conn, "CREATE " + (unique ? "UNIQUE " : "") + "INDEX " + (mysql ? "" : "IF NOT EXISTS ")
+                + indexName + " ON " + table + " (" + column + ')');
+    }
+
+    private String getIndexName(String column, boolean unique) {
+        //index names have to be unique in the whole schema for some databases
+        return tableName + '_' + column + (unique ? "_key" : "_idx");
+    }
+
+    private boolean hasIndex(Connection conn, String table, String indexName) throws SQLException {
+        ResultSet indexInfo = null;
+        try {
+            indexInfo = conn.getMetaData().getIndexInfo(null, null, table, false, false);
+            while (indexInfo.next()) {
+                if (indexName.equalsIgnoreCase(indexInfo.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+
+            return false;
+        } finally {
+            close(indexInfo);
+        }
+    }
+
+    private boolean tableExists(Connection conn, String table) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        //some databases store the names in upper case
+        for (String name : new String[]{table, table.toUpperCase(Locale.ENGLISH)}) {
+            ResultSet tables = null;
+            try {
+                tables = metaData.getTables(null, null, name, null);
+                if (tables.next()) {
+                    return true;
+                }
+            } finally {
+                close(tables);
+            }
+        }
+
+        return false;
+    }
+
+    private int getVersion(Connection conn) throws SQLException {
+        Statement stmt = null;
+        ResultSet resultSet = null;
+        try {
+            stmt = conn.createStatement();
+            resultSet = stmt.executeQuery("SELECT MAX(version) FROM " + versionTable);
+            //no rows or null if there are no versions
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        } finally {
+            close(resultSet);
+            close(stmt);
+        }
+    }
+
+    private void setVersion(Connection conn, int version) throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement("INSERT INTO " + versionTable + " (version) VALUES (?)");
+            stmt.setInt(1, version);
+            stmt.executeUpdate();
+        } finally {
+            close(stmt);
+        }
+
+        logger.log(Level.FINE, "Migrated the stats database to version {0}", version);
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.execute(sql);
+        } finally {
+            close(stmt);
+        }
+    }
+
+    private void close(AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                //ignore
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Represents the changes of player stats since they were saved the last time.
+ */
+class StatsDelta {
+
+    private final int kills;
+    private final int deaths;
+    private final int mobkills;
+
+    //the changes split by the day they happened
+    private final Map<LocalDate, StatsDelta> days;
+
+    StatsDelta(int kills, int deaths, int mobkills) {
+        this(kills, deaths, mobkills, Collections.emptyMap());
+    }
+
+    StatsDelta(int kills, int deaths, int mobkills, Map<LocalDate, StatsDelta> days) {
+        this.kills = kills;
+        this.deaths = deaths;
+        this.mobkills = mobkills;
+        this.days = days;
+    }
+
+    public int getKills() {
+        return kills;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public int getMobkills() {
+        return mobkills;
+    }
+
+    public Map<LocalDate, StatsDelta> getDays() {
+        return days;
+    }
+
+    public boolean isEmpty() {
+        return kills == 0 && deaths == 0 && mobkills == 0;
+    }
+}
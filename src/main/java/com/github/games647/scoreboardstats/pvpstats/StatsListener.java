@@ -11,7 +11,9 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
@@ -27,6 +29,32 @@ public class StatsListener implements Listener {
         this.database = database;
     }
 
+    /**
+     * Loads the player account already during the login, so it's ready when the player joins.
+     *
+     * @param preLoginEvent the async login event
+     * @see Database
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent preLoginEvent) {
+        if (preLoginEvent.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            //this event is already async so we can block here
+            database.preloadAccount(preLoginEvent.getUniqueId(), preLoginEvent.getName());
+        }
+    }
+
+    /**
+     * Removes the preloaded account if the player isn't allowed to join.
+     *
+     * @param loginEvent the login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent loginEvent) {
+        if (loginEvent.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            database.removePreloadedStats(loginEvent.getPlayer().getUniqueId());
+        }
+    }
+
     /**
      * Add the player account from the database in the cache.
      *
@@ -36,11 +64,17 @@ public class StatsListener implements Listener {
     @EventHandler(ignoreCancelled = true, priority = EventPriority.HIGH)
     public void onJoin(PlayerJoinEvent joinEvent) {
         Player player = joinEvent.getPlayer();
-        //removing old metadata which wasn't removed (which can lead to memory leaks)
-        player.removeMetadata("player_stats", plugin);
+        //removing old stats which weren't removed (which can lead to memory leaks)
+        database.removeCachedStats(player);
 
-        //load the pvpstats if activated
-        database.loadAccountAsync(player);
+        PlayerStats preloaded = database.removePreloadedStats(player.getUniqueId());
+        if (preloaded == null) {
+            //load the pvpstats if activated
+            database.loadAccountAsync(player);
+        } else {
+            //the sidebar isn't created yet, so it will show these values without updating them
+            database.cacheStats(player, preloaded);
+        }
     }
 
     /**
@@ -53,10 +87,8 @@ public class StatsListener implements Listener {
     public void onQuit(PlayerQuitEvent quitEvent) {
         Player player = quitEvent.getPlayer();
 
-        database.saveAsync(database.getCachedStats(player));
-
-        //just remove our metadata to prevent memory leaks
-        player.removeMetadata("player_stats", plugin);
+        //just remove our cache entry to prevent memory leaks
+        database.saveAsync(database.removeCachedStats(player));
     }
 
     /**
@@ -77,7 +109,9 @@ public class StatsListener implements Listener {
             if (killercache != null) {
                 //If the cache entry is loaded and the player isn't null, increase the mob kills
                 killercache.onMobKill();
+                database.updateTopEntry(killercache);
                 plugin.getReplaceManager().updateScore(killer, "mob", killercache.getMobkills());
+                database.updatePeriodScores(killer, killercache);
             }
         }
     }
@@ -100,20 +134,24 @@ public class StatsListener implements Listener {
             PlayerStats killedcache = database.getCachedStats(killed);
             if (killedcache != null) {
                 killedcache.onDeath();
+                database.updateTopEntry(killedcache);
                 plugin.getReplaceManager().updateScore(killed, "deaths", killedcache.getDeaths());
                 plugin.getReplaceManager().updateScore(killed, "kdr", killedcache.getKdr());
                 //will reset
                 plugin.getReplaceManager().updateScore(killed, "current_streak", killedcache.getLaststreak());
+                database.updatePeriodScores(killed, killedcache);
             }
 
             PlayerStats killercache = database.getCachedStats(killer);
             if (killercache != null) {
                 killercache.onKill();
+                database.updateTopEntry(killercache);
                 plugin.getReplaceManager().updateScore(killer, "kills", killercache.getKills());
                 plugin.getReplaceManager().updateScore(killer, "kdr", killercache.getKdr());
                 //maybe the player reaches a new high score
                 plugin.getReplaceManager().updateScore(killer, "killstreak", killercache.getKillstreak());
                 plugin.getReplaceManager().updateScore(killer, "current_streak", killercache.getLaststreak());
+                database.updatePeriodScores(killer, killercache);
             }
         }
     }
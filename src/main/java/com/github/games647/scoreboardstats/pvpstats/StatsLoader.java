@@ -7,7 +7,6 @@ import java.lang.ref.WeakReference;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.metadata.FixedMetadataValue;
 
 /**
  * This class is used for loading the player stats.
@@ -50,19 +49,8 @@ public class StatsLoader implements Runnable {
                 stats.setUuid(player.getUniqueId());
             }
 
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                //possible not thread-safe, so reschedule it while setMetadata is thread-safe
-                if (player.isOnline()) {
-                    //sets it only if the player is only
-                    player.setMetadata("player_stats", new FixedMetadataValue(plugin, stats));
-                    plugin.getReplaceManager().updateScore(player, "deaths", stats.getDeaths());
-                    plugin.getReplaceManager().updateScore(player, "kdr", stats.getKdr());
-                    plugin.getReplaceManager().updateScore(player, "kills", stats.getKills());
-                    plugin.getReplaceManager().updateScore(player, "killstreak", stats.getKillstreak());
-                    plugin.getReplaceManager().updateScore(player, "current_streak", stats.getLaststreak());
-                    plugin.getReplaceManager().updateScore(player, "mobkills", stats.getMobkills());
-                }
-            });
+            //possible not thread-safe, so reschedule it for the isOnline check and the score updates
+            Bukkit.getScheduler().runTask(plugin, () -> statsDatabase.applyLoadedStats(player, stats));
         }
     }
 
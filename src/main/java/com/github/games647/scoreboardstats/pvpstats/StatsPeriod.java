@@ -0,0 +1,93 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Represents the time periods for which the kills, deaths and mobkills are counted separately.
+ */
+public enum StatsPeriod {
+
+    DAY("day"),
+
+    WEEK("week"),
+
+    MONTH("month");
+
+    private final String name;
+
+    StatsPeriod(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get the period of a variable like <i>kills_week</i>.
+     *
+     * @param variable the variable without the variable identifiers (%)
+     * @return the period or null if the variable is about the lifetime stats
+     */
+    public static StatsPeriod fromVariable(String variable) {
+        for (StatsPeriod period : values()) {
+            if (variable.endsWith('_' + period.name)) {
+                return period;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the earliest day which is needed to calculate the values of all periods.
+     *
+     * @param today the current day
+     * @return the first day of the longest running period
+     */
+    public static LocalDate getEarliestStart(LocalDate today) {
+        LocalDate earliest = today;
+        for (StatsPeriod period : values()) {
+            LocalDate start = period.getStart(today);
+            if (start.isBefore(earliest)) {
+                earliest = start;
+            }
+        }
+
+        return earliest;
+    }
+
+    /**
+     * Get the suffix of the variables for this period.
+     *
+     * @return the name used in variables
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Removes the suffix of this period.
+     *
+     * @param variable the variable with the suffix of this period
+     * @return the name of the lifetime variable
+     */
+    public String stripSuffix(String variable) {
+        return variable.substring(0, variable.length() - name.length() - 1);
+    }
+
+    /**
+     * Get the first day of the current period. Weeks start on monday.
+     *
+     * @param today the current day
+     * @return the first day which is counted
+     */
+    public LocalDate getStart(LocalDate today) {
+        switch (this) {
+            case WEEK:
+                return today.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return today.withDayOfMonth(1);
+            case DAY:
+            default:
+                return today;
+        }
+    }
+}
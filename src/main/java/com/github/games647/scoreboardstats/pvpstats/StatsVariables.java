@@ -3,6 +3,9 @@ package com.github.games647.scoreboardstats.pvpstats;
 import com.github.games647.scoreboardstats.ScoreboardStats;
 import com.github.games647.scoreboardstats.variables.ReplaceEvent;
 import com.github.games647.scoreboardstats.variables.VariableReplaceAdapter;
+import com.google.common.collect.Lists;
+
+import java.util.List;
 
 import org.bukkit.entity.Player;
 
@@ -15,23 +18,51 @@ public class StatsVariables extends VariableReplaceAdapter<ScoreboardStats> {
 
     private final Database statsDatabase;
 
+    private static final String[] PERIODIC_VARIABLES = {"kills", "deaths", "mob"};
+
     public StatsVariables(ScoreboardStats plugin, Database statsDatabase) {
-        super(plugin
-                , "kills", "deaths", "mob", "kdr", "killstreak", "current_streak");
+        super(plugin, createVariables());
 
         this.statsDatabase = statsDatabase;
     }
 
+    private static String[] createVariables() {
+        List<String> variables = Lists.newArrayList("kills", "deaths", "mob", "kdr", "killstreak", "current_streak");
+        for (String variable : PERIODIC_VARIABLES) {
+            for (StatsPeriod period : StatsPeriod.values()) {
+                //like kills_week
+                variables.add(variable + '_' + period.getName());
+            }
+        }
+
+        return variables.toArray(new String[variables.size()]);
+    }
+
     @Override
     public void onReplace(Player player, String variable, ReplaceEvent replaceEvent) {
         PlayerStats stats = statsDatabase.getCachedStats(player);
-        replaceEvent.setConstant(true);
+        StatsPeriod period = StatsPeriod.fromVariable(variable);
+        if (period == null) {
+            //the lifetime stats only change on events - the periods also if the day changes, so they are refreshed
+            replaceEvent.setConstant(true);
+        }
+
         if (stats == null) {
             //Null if the stats aren't loaded yet
             return;
         }
 
-        if ("kills".equals(variable)) {
+        if (period != null) {
+            String lifetimeVariable = period.stripSuffix(variable);
+            PeriodStats periodStats = stats.getPeriodStats();
+            if ("kills".equals(lifetimeVariable)) {
+                replaceEvent.setScore(periodStats.getKills(period));
+            } else if ("deaths".equals(lifetimeVariable)) {
+                replaceEvent.setScore(periodStats.getDeaths(period));
+            } else if ("mob".equals(lifetimeVariable)) {
+                replaceEvent.setScore(periodStats.getMobkills(period));
+            }
+        } else if ("kills".equals(variable)) {
             replaceEvent.setScore(stats.getKills());
         } else if ("deaths".equals(variable)) {
             replaceEvent.setScore(stats.getDeaths());
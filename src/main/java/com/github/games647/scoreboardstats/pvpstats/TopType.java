@@ -0,0 +1,75 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Represents the categories for which a top list is maintained.
+ */
+public enum TopType {
+
+    KILLS("kills", "kills", PlayerStats::getKills),
+
+    DEATHS("deaths", "deaths", PlayerStats::getDeaths),
+
+    KILLSTREAK("killstreak", "killstreak", PlayerStats::getKillstreak),
+
+    MOBKILLS("mob", "mobkills", PlayerStats::getMobkills),
+
+    //sorted by the ratio with the same handling of zero deaths like PlayerStats
+    KDR("kdr", "kills * 1.0 / CASE WHEN deaths = 0 THEN 1 ELSE deaths END", PlayerStats::getKdr);
+
+    private final String configName;
+    private final String orderExpression;
+    private final ToIntFunction<PlayerStats> valueFunction;
+
+    TopType(String configName, String orderExpression, ToIntFunction<PlayerStats> valueFunction) {
+        this.configName = configName;
+        this.orderExpression = orderExpression;
+        this.valueFunction = valueFunction;
+    }
+
+    /**
+     * Get the type by the name used in the config.
+     *
+     * @param configName the name without the variable identifiers (%)
+     * @return the top type or kills if the name is unknown
+     */
+    public static TopType fromConfig(String configName) {
+        for (TopType type : values()) {
+            if (type.configName.equalsIgnoreCase(configName) || type.name().equalsIgnoreCase(configName)) {
+                return type;
+            }
+        }
+
+        return KILLS;
+    }
+
+    /**
+     * Get the SQL expression the player stats are sorted by.
+     *
+     * @return the order expression
+     */
+    public String getOrderExpression() {
+        return orderExpression;
+    }
+
+    /**
+     * Check whether this category is also counted for every time period.
+     *
+     * @return whether there are top lists per period
+     * @see StatsPeriod
+     */
+    public boolean isPeriodic() {
+        return this == KILLS || this == DEATHS || this == MOBKILLS;
+    }
+
+    /**
+     * Get the ranked value of these stats
+     *
+     * @param stats the player stats
+     * @return the value for this category
+     */
+    public int getValue(PlayerStats stats) {
+        return valueFunction.applyAsInt(stats);
+    }
+}
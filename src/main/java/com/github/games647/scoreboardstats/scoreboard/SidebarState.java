@@ -0,0 +1,132 @@
+package com.github.games647.scoreboardstats.scoreboard;
+
+import com.github.games647.scoreboardstats.config.VariableItem;
+import com.github.games647.scoreboardstats.variables.ReplaceEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Represents the state of the configured sidebar items for a specific player.
+ */
+public class SidebarState {
+
+    //A scoreboard can't have more than 15 items
+    private static final int MAX_ITEMS = 15;
+
+    //how many refreshes of this player are remaining until the item should be resolved again
+    private final int[] remainingCycles = new int[MAX_ITEMS];
+
+    //the scores the player currently sees
+    private final int[] sentScores = new int[MAX_ITEMS];
+    private final boolean[] sent = new boolean[MAX_ITEMS];
+
+    //results of async replacers that are waiting to be sent by the main thread
+    private final AtomicReferenceArray<ReplaceEvent> resolvedEvents = new AtomicReferenceArray<>(MAX_ITEMS);
+    private final AtomicBoolean asyncPending = new AtomicBoolean();
+
+    /**
+     * Checks if the variable of this item should be resolved in the current refresh of this player. Every call counts
+     * down the remaining refreshes until the refresh interval of this item elapsed.
+     *
+     * @param item the variable item
+     * @return whether the variable should be resolved again
+     */
+    public boolean isRefreshDue(VariableItem item) {
+        int index = item.getIndex();
+        remainingCycles[index]--;
+        if (remainingCycles[index] <= 0) {
+            remainingCycles[index] = item.getRefreshCycles();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Marks the variable of this item as freshly resolved.
+     *
+     * @param item the variable item
+     */
+    public void markRefreshed(VariableItem item) {
+        remainingCycles[item.getIndex()] = item.getRefreshCycles();
+    }
+
+    /**
+     * Get the score that was sent last for this item.
+     *
+     * @param item the variable item
+     * @param def the value if nothing was sent yet
+     * @return the last sent score or def
+     */
+    public int getSentScore(VariableItem item, int def) {
+        int index = item.getIndex();
+        if (sent[index]) {
+            return sentScores[index];
+        }
+
+        return def;
+    }
+
+    /**
+     * Remembers the score for this item if it's different to the last sent one.
+     *
+     * @param item the variable item
+     * @param score the new score
+     * @return whether the score changed and have to be sent
+     */
+    public boolean markSent(VariableItem item, int score) {
+        int index = item.getIndex();
+        if (sent[index] && sentScores[index] == score) {
+            return false;
+        }
+
+        sent[index] = true;
+        sentScores[index] = score;
+        return true;
+    }
+
+    /**
+     * Forget all sent scores, because the scoreboard will be created again.
+     */
+    public void resetSent() {
+        Arrays.fill(sent, false);
+    }
+
+    /**
+     * Stores the result of an async replacer for this item. This can be called from any thread.
+     *
+     * @param item the variable item
+     * @param replaceEvent the modified state
+     */
+    public void publish(VariableItem item, ReplaceEvent replaceEvent) {
+        resolvedEvents.set(item.getIndex(), replaceEvent);
+    }
+
+    /**
+     * Takes the last published result of an async replacer for this item.
+     *
+     * @param item the variable item
+     * @return the modified state or null if there is no new result
+     */
+    public ReplaceEvent pollResolved(VariableItem item) {
+        return resolvedEvents.getAndSet(item.getIndex(), null);
+    }
+
+    /**
+     * Marks that the async replacers are running for this player.
+     *
+     * @return false if the last async run isn't finished yet
+     */
+    public boolean startAsyncRefresh() {
+        return asyncPending.compareAndSet(false, true);
+    }
+
+    /**
+     * Marks that the async replacers are finished for this player.
+     */
+    public void finishAsyncRefresh() {
+        asyncPending.set(false);
+    }
+}
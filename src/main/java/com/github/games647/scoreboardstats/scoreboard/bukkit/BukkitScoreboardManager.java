@@ -2,13 +2,8 @@ package com.github.games647.scoreboardstats.scoreboard.bukkit;
 
 import com.github.games647.scoreboardstats.SbManager;
 import com.github.games647.scoreboardstats.ScoreboardStats;
-import com.github.games647.scoreboardstats.config.Lang;
 import com.github.games647.scoreboardstats.config.Settings;
 import com.github.games647.scoreboardstats.config.VariableItem;
-import com.github.games647.scoreboardstats.variables.ReplaceEvent;
-import com.github.games647.scoreboardstats.variables.UnknownVariableException;
-
-import java.util.Iterator;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -60,38 +55,21 @@ public class BukkitScoreboardManager extends SbManager {
         objective.setDisplaySlot(DisplaySlot.SIDEBAR);
         objective.setDisplayName(Settings.getMainScoreboard().getTitle());
 
-        Iterator<VariableItem> iter = Settings.getMainScoreboard().getItemsByName().values().iterator();
-        while (iter.hasNext()) {
-            VariableItem scoreItem = iter.next();
-
-            String displayText = scoreItem.getDisplayText();
-            int defScore = scoreItem.getScore();
-
-            String variable = scoreItem.getVariable();
-            if (variable == null) {
-                update(player, displayText, defScore);
-            } else {
-                try {
-                    ReplaceEvent replaceEvent = replaceManager.getScore(player, variable, displayText, defScore, true);
-                    if (replaceEvent.isModified()) {
-                        sendScore(objective, displayText, replaceEvent.getScore(), true);
-                    }
-                } catch (UnknownVariableException ex) {
-                    //Remove the variable becaue we can't replace it
-                    iter.remove();
-                    Settings.getMainScoreboard().getItemsByVariable().remove(scoreItem.getVariable());
-
-                    plugin.getLogger().info(Lang.get("unknownVariable", scoreItem));
-                }
+        for (VariableItem scoreItem : Settings.getMainScoreboard().getItemsByName().values()) {
+            if (scoreItem.getVariable() == null) {
+                update(player, scoreItem.getDisplayText(), scoreItem.getScore());
             }
         }
 
+        refreshItems(player, true, (displayText, score) -> sendScore(objective, displayText, score, true));
+
         //Schedule the next tempscoreboard show
         scheduleShowTask(player, true);
     }
 
     @Override
     public void unregister(Player player) {
+        removeSidebarState(player);
         player.getScoreboard().getObjectives().stream()
                 .filter(obj -> obj.getName().startsWith(SB_NAME))
                 .forEach(Objective::unregister);
@@ -153,27 +131,7 @@ public class BukkitScoreboardManager extends SbManager {
         Objective objective = player.getScoreboard().getObjective(DisplaySlot.SIDEBAR);
         //don't override other scoreboards
         if (objective != null && SB_NAME.equals(objective.getName())) {
-            Iterator<VariableItem> iter = Settings.getMainScoreboard().getItemsByVariable().values().iterator();
-            while (iter.hasNext()) {
-                VariableItem variableItem = iter.next();
-
-                String variable = variableItem.getVariable();
-                String displayText = variableItem.getDisplayText();
-                int score = variableItem.getScore();
-
-                try {
-                    ReplaceEvent replaceEvent = replaceManager.getScore(player, variable, displayText, score, false);
-                    if (replaceEvent.isModified()) {
-                        sendScore(objective, displayText, replaceEvent.getScore(), false);
-                    }
-                } catch (UnknownVariableException ex) {
-                    //Remove the variable becaue we can't replace it
-                    iter.remove();
-                    Settings.getMainScoreboard().getItemsByName().remove(variableItem.getDisplayText());
-
-                    plugin.getLogger().info(Lang.get("unknownVariable", variableItem));
-                }
-            }
+            refreshItems(player, false, (displayText, score) -> sendScore(objective, displayText, score, false));
         }
     }
 
@@ -39,7 +39,7 @@ public class Item implements Comparable<Item> {
      * @return whether this item exists
      */
     public boolean exists() {
-        return parent.items.containsValue(this) && parent.exists();
+        return parent.hasItem(this) && parent.exists();
     }
 
     /**
@@ -72,10 +72,23 @@ public class Item implements Comparable<Item> {
 
         if (this.score != score) {
             this.score = score;
+            parent.markUnsorted();
             update();
         }
     }
 
+    /**
+     * Sets the score which the client already knows.
+     *
+     * @param score the new value
+     */
+    void setClientScore(int score) {
+        if (this.score != score) {
+            this.score = score;
+            parent.markUnsorted();
+        }
+    }
+
     /**
      * Unregister this item.
      */
@@ -2,13 +2,10 @@ package com.github.games647.scoreboardstats.scoreboard.protocol;
 
 import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
-import java.util.Collections;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 
@@ -21,8 +18,26 @@ public class Objective {
 
     private static final int MAX_ITEM_SIZE = 15;
 
-    //A scoreboard can't have more than 15 items
-    protected final Map<String, Item> items = Maps.newHashMapWithExpectedSize(MAX_ITEM_SIZE);
+    //A sidebar of this plugin can't have more than 15 items - the used slots are at the start
+    //objectives of other plugins could have more scores and be moved to the sidebar later, so they can grow
+    private Item[] items = new Item[MAX_ITEM_SIZE];
+    private int itemCount;
+    //whether the used slots are sorted by the score - sorted lazily if the items are requested
+    private boolean sorted = true;
+
+    //read-only view of the used slots, so the items can be read without copying them
+    private final List<Item> itemsView = new AbstractList<Item>() {
+        @Override
+        public Item get(int index) {
+            Preconditions.checkElementIndex(index, itemCount);
+            return items[index];
+        }
+
+        @Override
+        public int size() {
+            return itemCount;
+        }
+    };
 
     private final PlayerScoreboard scoreboard;
 
@@ -171,11 +186,18 @@ public class Objective {
         ////newer minecraft versions support longer names - TODO: version specific check
 //        Preconditions.checkArgument(name.length() <= 16);
 
-        Preconditions.checkState(items.size() <= MAX_ITEM_SIZE);
+        int index = indexOf(name);
+        Preconditions.checkState(index != -1 || itemCount < MAX_ITEM_SIZE);
 
         Item scoreItem = new Item(this, name, score, send);
-        items.put(name, scoreItem);
+        if (index == -1) {
+            items[itemCount++] = scoreItem;
+        } else {
+            //replace the old one
+            items[index] = scoreItem;
+        }
 
+        sorted = false;
         return scoreItem;
     }
 
@@ -186,19 +208,28 @@ public class Objective {
      * @return the item or null if no item item with that name exists
      */
     public Item getItem(String name) {
-        return items.get(name);
+        int index = indexOf(name);
+        if (index == -1) {
+            return null;
+        }
+
+        return items[index];
     }
 
     /**
      * Gets a collection of all registered item/scores in this objective as an
-     * immutable sorted list.
+     * unmodifiable sorted list. The list is a view, so it reflects later changes of this objective.
      *
      * @return all items for this objective
      */
     public List<Item> getItems() {
-        List<Item> values = Lists.newArrayList(items.values());
-        Collections.sort(values);
-        return ImmutableList.copyOf(values);
+        if (!sorted) {
+            //the slots are only searched linearly, so they can be kept in the sorted order
+            Arrays.sort(items, 0, itemCount);
+            sorted = true;
+        }
+
+        return itemsView;
     }
 
     /**
@@ -217,7 +248,7 @@ public class Objective {
         //newer minecraft versions support longer names - TODO: version specific check
 //        Preconditions.checkArgument(name.length() <= 16, "a scoreboard item cannot be longer than 16 characters");
 
-        Item item = items.remove(name);
+        Item item = removeItem(name);
         if (item != null) {
             item.unregister();
         }
@@ -231,8 +262,13 @@ public class Objective {
     public void clearItems() throws IllegalStateException {
         Preconditions.checkState(exists(), "the client doesn't know this objective");
 
-        items.values().forEach(Item::unregister);
-        items.clear();
+        //backwards, because unregistering removes the item from the slots
+        for (int i = itemCount - 1; i >= 0; i--) {
+            items[i].unregister();
+        }
+
+        Arrays.fill(items, 0, itemCount, null);
+        itemCount = 0;
     }
 
     /**
@@ -254,6 +290,53 @@ public class Objective {
         return scoreboard;
     }
 
+    boolean hasItem(Item item) {
+        return indexOf(item.getScoreName()) != -1;
+    }
+
+    void updateItem(String name, int score) {
+        int index = indexOf(name);
+        if (index != -1) {
+            //reuse the existing item instead of creating a new one for every score packet
+            items[index].setClientScore(score);
+        } else {
+            if (itemCount == items.length) {
+                //a below name or tab list objective of another plugin
+                items = Arrays.copyOf(items, items.length * 2);
+            }
+
+            items[itemCount++] = new Item(this, name, score, false);
+            sorted = false;
+        }
+    }
+
+    void markUnsorted() {
+        sorted = false;
+    }
+
+    Item removeItem(String name) {
+        int index = indexOf(name);
+        if (index == -1) {
+            return null;
+        }
+
+        Item removed = items[index];
+        //keep the used slots together
+        System.arraycopy(items, index + 1, items, index, itemCount - index - 1);
+        items[--itemCount] = null;
+        return removed;
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < itemCount; i++) {
+            if (items[i].getScoreName().equals(name)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hashCode(objectiveName);
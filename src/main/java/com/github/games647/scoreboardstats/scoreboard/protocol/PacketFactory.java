@@ -4,10 +4,15 @@ import com.comphenix.protocol.PacketType;
 import com.comphenix.protocol.ProtocolLibrary;
 import com.comphenix.protocol.ProtocolManager;
 import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.reflect.StructureModifier;
 import com.comphenix.protocol.wrappers.EnumWrappers.ScoreboardAction;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.UUID;
 import java.util.logging.Logger;
@@ -29,6 +34,79 @@ public class PacketFactory {
 
     private static final ProtocolManager PROTOCOL_MANAGER = ProtocolLibrary.getProtocolManager();
 
+    private static final PacketType SCORE_TYPE = PacketType.Play.Server.SCOREBOARD_SCORE;
+    private static final PacketType OBJECTIVE_TYPE = PacketType.Play.Server.SCOREBOARD_OBJECTIVE;
+    private static final PacketType DISPLAY_TYPE = PacketType.Play.Server.SCOREBOARD_DISPLAY_OBJECTIVE;
+
+    private static final ScoreboardAction[] SCORE_ACTIONS = ScoreboardAction.values();
+
+    //field accessors resolved once for this server version, so the packet layout isn't probed for every packet
+    private static final StructureModifier<String> SCORE_STRINGS;
+    private static final StructureModifier<Integer> SCORE_INTEGERS;
+    //null for the old system -> no enum -> 1.5-1.7
+    private static final StructureModifier<ScoreboardAction> SCORE_ACTION;
+
+    private static final StructureModifier<String> OBJECTIVE_STRINGS;
+    private static final StructureModifier<Integer> OBJECTIVE_INTEGERS;
+    //the render type was introduced in 1.8
+    private static final boolean OBJECTIVE_RENDER_TYPE;
+
+    private static final StructureModifier<String> DISPLAY_STRINGS;
+    private static final StructureModifier<Integer> DISPLAY_INTEGERS;
+
+    static {
+        PacketContainer scoreTemplate = PROTOCOL_MANAGER.createPacket(SCORE_TYPE, true);
+        SCORE_STRINGS = scoreTemplate.getStrings();
+        SCORE_INTEGERS = scoreTemplate.getIntegers();
+        if (SCORE_INTEGERS.size() > 1) {
+            //the state id is the second integer
+            SCORE_ACTION = null;
+        } else {
+            //an enum is used instead of an integer
+            SCORE_ACTION = scoreTemplate.getScoreboardActions();
+        }
+
+        PacketContainer objectiveTemplate = PROTOCOL_MANAGER.createPacket(OBJECTIVE_TYPE, true);
+        OBJECTIVE_STRINGS = objectiveTemplate.getStrings();
+        OBJECTIVE_INTEGERS = objectiveTemplate.getIntegers();
+        OBJECTIVE_RENDER_TYPE = OBJECTIVE_STRINGS.size() > 2;
+
+        PacketContainer displayTemplate = PROTOCOL_MANAGER.createPacket(DISPLAY_TYPE, true);
+        DISPLAY_STRINGS = displayTemplate.getStrings();
+        DISPLAY_INTEGERS = displayTemplate.getIntegers();
+    }
+
+    //collected packets of a running batch per receiver - only accessed from the main thread
+    private static final Map<UUID, List<PacketContainer>> BATCHES = Maps.newHashMap();
+
+    /**
+     * Starts to collect all packets for this player instead of sending them directly. The packets will be sent
+     * together by {@link #flush(Player)}.
+     *
+     * @param receiver the receiver of the packets
+     */
+    public static void startBatch(Player receiver) {
+        BATCHES.putIfAbsent(receiver.getUniqueId(), Lists.newArrayList());
+    }
+
+    /**
+     * Sends all collected packets of this player in the order they were created and ends the batch.
+     *
+     * @param receiver the receiver of the packets
+     */
+    public static void flush(Player receiver) {
+        List<PacketContainer> packets = BATCHES.remove(receiver.getUniqueId());
+        if (packets == null || packets.isEmpty()) {
+            return;
+        }
+
+        //look up the player only once for the whole batch
+        Player onlineReceiver = Bukkit.getPlayer(receiver.getUniqueId());
+        if (onlineReceiver != null) {
+            packets.forEach(packet -> sendPacket(onlineReceiver, packet));
+        }
+    }
+
     /**
      * Sends a new scoreboard item packet.
      *
@@ -36,24 +114,26 @@ public class PacketFactory {
      * @param state whether the item should be send as removed or created/updated
      */
     public static void sendPacket(Item item, State state) {
-        PacketContainer scorePacket = PROTOCOL_MANAGER.createPacket(PacketType.Play.Server.SCOREBOARD_SCORE, true);
+        PacketContainer scorePacket = PROTOCOL_MANAGER.createPacket(SCORE_TYPE, true);
+        Object handle = scorePacket.getHandle();
+
+        StructureModifier<String> strings = SCORE_STRINGS.withTarget(handle);
         //max length 16 and since 1.7 UTF-8 instead of UTF-16
-        scorePacket.getStrings().write(0, item.getScoreName());
-        scorePacket.getStrings().write(1, item.getParent().getName());
+        strings.write(0, item.getScoreName());
+        strings.write(1, item.getParent().getName());
 
+        StructureModifier<Integer> integers = SCORE_INTEGERS.withTarget(handle);
         if (State.REMOVE != state) {
             //Only need these if the score will be updated or created
-            scorePacket.getIntegers().write(0, item.getScore());
+            integers.write(0, item.getScore());
         }
 
         //state id
-        Integer stateId = scorePacket.getIntegers().readSafely(1);
-        if (stateId == null) {
-            //an enum is used instead of an integer
-            scorePacket.getScoreboardActions().write(0, ScoreboardAction.values()[state.ordinal()]);
-        } else {
+        if (SCORE_ACTION == null) {
             //old system -> no enum -> 1.5-1.7
-            scorePacket.getIntegers().write(1, state.ordinal());
+            integers.write(1, state.ordinal());
+        } else {
+            SCORE_ACTION.withTarget(handle).write(0, SCORE_ACTIONS[state.ordinal()]);
         }
 
         sendPacket(item.getParent().getScoreboard().getOwner().getUniqueId(), scorePacket);
@@ -66,20 +146,24 @@ public class PacketFactory {
      * @param state whether the objective was created, updated (displayname) or removed
      */
     public static void sendPacket(Objective objective, State state) {
-        PacketContainer objectivePacket = PROTOCOL_MANAGER
-                .createPacket(PacketType.Play.Server.SCOREBOARD_OBJECTIVE, true);
-        objectivePacket.getStrings().write(0, objective.getName());
+        PacketContainer objectivePacket = PROTOCOL_MANAGER.createPacket(OBJECTIVE_TYPE, true);
+        Object handle = objectivePacket.getHandle();
+
+        StructureModifier<String> strings = OBJECTIVE_STRINGS.withTarget(handle);
+        strings.write(0, objective.getName());
 
         if (state != State.REMOVE) {
             //only send the title if needed, so while creating the objective or update the title
             //max length 32 and since 1.7 UTF-8 instead of UTF-16
-            objectivePacket.getStrings().write(1, objective.getDisplayName());
-            //introduced in 1.8 don't fail on versions for 1.7 or below
-            objectivePacket.getStrings().writeSafely(2, "integer");
+            strings.write(1, objective.getDisplayName());
+            if (OBJECTIVE_RENDER_TYPE) {
+                //introduced in 1.8 don't fail on versions for 1.7 or below
+                strings.write(2, "integer");
+            }
         }
 
         //state id
-        objectivePacket.getIntegers().write(0, state.ordinal());
+        OBJECTIVE_INTEGERS.withTarget(handle).write(0, state.ordinal());
         sendPacket(objective.getScoreboard().getOwner().getUniqueId(), objectivePacket);
     }
 
@@ -89,13 +173,13 @@ public class PacketFactory {
      * @param objective the displayed objective, if getName() is empty it will just clear the sidebar
      */
     public static void sendDisplayPacket(Objective objective) {
-        PacketContainer displayPacket = PROTOCOL_MANAGER
-                .createPacket(PacketType.Play.Server.SCOREBOARD_DISPLAY_OBJECTIVE, true);
+        PacketContainer displayPacket = PROTOCOL_MANAGER.createPacket(DISPLAY_TYPE, true);
+        Object handle = displayPacket.getHandle();
         //Can be empty to clear the sidebar slot
         //max length 16 and since 1.7 UTF-8 instead of UTF-16
-        displayPacket.getStrings().write(0, objective.getName());
+        DISPLAY_STRINGS.withTarget(handle).write(0, objective.getName());
 
-        displayPacket.getIntegers().write(0, SIDEBAR_SLOT);
+        DISPLAY_INTEGERS.withTarget(handle).write(0, SIDEBAR_SLOT);
         sendPacket(objective.getScoreboard().getOwner().getUniqueId(), displayPacket);
     }
 
@@ -119,12 +203,29 @@ public class PacketFactory {
 //        sendPacket(team, teamPacket);
     }
 
+    /**
+     * Check whether score packets use an enum for the state instead of an integer
+     *
+     * @return true if the server is newer than 1.7
+     */
+    static boolean isScoreActionEnum() {
+        return SCORE_ACTION != null;
+    }
+
     private static void sendPacket(UUID receiverId, PacketContainer packet) {
-        Player receiver = Bukkit.getPlayer(receiverId);
-        if (receiver == null) {
+        List<PacketContainer> batch = BATCHES.get(receiverId);
+        if (batch != null) {
+            batch.add(packet);
             return;
         }
 
+        Player receiver = Bukkit.getPlayer(receiverId);
+        if (receiver != null) {
+            sendPacket(receiver, packet);
+        }
+    }
+
+    private static void sendPacket(Player receiver, PacketContainer packet) {
         try {
             //false so we don't listen to our own packets
             PROTOCOL_MANAGER.sendServerPacket(receiver, packet, false);
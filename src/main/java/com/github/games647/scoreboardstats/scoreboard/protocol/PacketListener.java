@@ -7,6 +7,13 @@ import com.comphenix.protocol.events.PacketContainer;
 import com.comphenix.protocol.events.PacketEvent;
 
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -32,6 +39,10 @@ public class PacketListener extends PacketAdapter {
 
     protected final PacketSbManager manager;
 
+    //decoded scoreboard changes per player - filled by the packet threads and applied on the main thread
+    private final Map<Player, Queue<Consumer<PlayerScoreboard>>> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
     /**
      * Creates a new packet listener
      *
@@ -54,54 +65,88 @@ public class PacketListener extends PacketAdapter {
         PacketContainer packet = packetEvent.getPacket();
         PacketType packetType = packetEvent.getPacketType();
 
+        Consumer<PlayerScoreboard> change = null;
+        if (packetType.equals(SCORE_TYPE)) {
+            change = handleScorePacket(packet);
+        } else if (packetType.equals(OBJECTIVE_TYPE)) {
+            change = handleObjectivePacket(packet);
+        } else if (packetType.equals(DISPLAY_TYPE)) {
+            change = handleDisplayPacket(packet);
+        } else if (packetType.equals(TEAM_TYPE)) {
+            change = handleTeamPacket(packet);
+        }
+
+        if (change == null) {
+            //Invalid packet
+            return;
+        }
+
         //everything was read from the packet, so we don't need to access it anymore
-        //we could now run a sync thread to synchronize with async packets
-        Bukkit.getScheduler().runTask(plugin, () -> {
-            if (packetType.equals(SCORE_TYPE)) {
-                handleScorePacket(player, packet);
-            } else if (packetType.equals(OBJECTIVE_TYPE)) {
-                handleObjectivePacket(player, packet);
-            } else if (packetType.equals(DISPLAY_TYPE)) {
-                handleDisplayPacket(player, packet);
-            } else if (packetType.equals(TEAM_TYPE)) {
-                handleTeamPacket(player, packet);
+        pendingChanges.computeIfAbsent(player, key -> new ConcurrentLinkedQueue<>()).add(change);
+        if (drainScheduled.compareAndSet(false, true)) {
+            //synchronize all changes of this tick with a single task
+            Bukkit.getScheduler().runTask(plugin, this::applyChanges);
+        }
+    }
+
+    private void applyChanges() {
+        //changes that are added while draining will schedule the next run
+        drainScheduled.set(false);
+
+        Iterator<Map.Entry<Player, Queue<Consumer<PlayerScoreboard>>>> iterator = pendingChanges.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Player, Queue<Consumer<PlayerScoreboard>>> entry = iterator.next();
+            Player player = entry.getKey();
+            if (!player.isOnline()) {
+                iterator.remove();
+                continue;
+            }
+
+            Queue<Consumer<PlayerScoreboard>> changes = entry.getValue();
+            if (changes.isEmpty()) {
+                continue;
+            }
+
+            PlayerScoreboard scoreboard = manager.getScoreboard(player);
+            Consumer<PlayerScoreboard> change;
+            while ((change = changes.poll()) != null) {
+                change.accept(scoreboard);
             }
-        });
+        }
     }
 
-    private void handleScorePacket(Player player, PacketContainer packet) {
+    private Consumer<PlayerScoreboard> handleScorePacket(PacketContainer packet) {
         String scoreName = packet.getStrings().read(0);
         String parent = packet.getStrings().read(1);
         int score = packet.getIntegers().read(0);
 
         //state id
-        Integer stateId = packet.getIntegers().readSafely(1);
-
         State action;
-        if (stateId == null) {
+        if (PacketFactory.isScoreActionEnum()) {
             //an enum is used instead of an integer
             action = State.fromId(packet.getScoreboardActions().read(0).ordinal());
         } else {
             //old system no enum -> 1.5-1.7
-            action = State.fromId(stateId);
+            action = State.fromId(packet.getIntegers().read(1));
         }
 
         //Packet receiving validation
         if (action == State.CREATE && parent.length() > 16) {
             //Invalid packet
-            return;
+            return null;
         }
 
-        PlayerScoreboard scoreboard = manager.getScoreboard(player);
-        //scores actually only have two state id, because these
-        if (action == State.CREATE) {
-            scoreboard.createOrUpdateScore(scoreName, parent, score);
-        } else if (action == State.REMOVE) {
-            scoreboard.resetScore(scoreName);
-        }
+        return scoreboard -> {
+            //scores actually only have two state id, because these
+            if (action == State.CREATE) {
+                scoreboard.createOrUpdateScore(scoreName, parent, score);
+            } else if (action == State.REMOVE) {
+                scoreboard.resetScore(scoreName);
+            }
+        };
     }
 
-    private void handleObjectivePacket(Player player, PacketContainer packet) {
+    private Consumer<PlayerScoreboard> handleObjectivePacket(PacketContainer packet) {
         String objectiveName = packet.getStrings().read(0);
         //Can be empty
         String displayName = packet.getStrings().read(1);
@@ -110,45 +155,47 @@ public class PacketListener extends PacketAdapter {
         //Packet receiving validation
         if (objectiveName.length() > 16 || displayName.length() > 32) {
             //Invalid packet
-            return;
+            return null;
         }
 
-        PlayerScoreboard scoreboard = manager.getScoreboard(player);
-        Objective objective = scoreboard.getObjective(objectiveName);
-        if (action == State.CREATE) {
-            scoreboard.addObjective(objectiveName, displayName);
-        } else if (objective != null) {
-            //Could cause a NPE at the client if the objective wasn't found
-            if (action == State.REMOVE) {
-                scoreboard.removeObjective(objectiveName);
-            } else if (action == State.UPDATE) {
-                objective.setDisplayName(displayName, false);
+        return scoreboard -> {
+            Objective objective = scoreboard.getObjective(objectiveName);
+            if (action == State.CREATE) {
+                scoreboard.addObjective(objectiveName, displayName);
+            } else if (objective != null) {
+                //Could cause a NPE at the client if the objective wasn't found
+                if (action == State.REMOVE) {
+                    scoreboard.removeObjective(objectiveName);
+                } else if (action == State.UPDATE) {
+                    objective.setDisplayName(displayName, false);
+                }
             }
-        }
+        };
     }
 
-    private void handleDisplayPacket(Player player, PacketContainer packet) {
+    private Consumer<PlayerScoreboard> handleDisplayPacket(PacketContainer packet) {
         //Can be empty; if so it would just clear the slot
         String objectiveName = packet.getStrings().read(0);
         DisplaySlot slot = SlotTransformer.fromId(packet.getIntegers().read(0));
 
         //Packet receiving validation
         if (slot == null || objectiveName.length() > 16) {
-            return;
+            return null;
         }
 
-        PlayerScoreboard scoreboard = manager.getScoreboard(player);
-        if (slot == DisplaySlot.SIDEBAR) {
-            scoreboard.setSidebarObjective(objectiveName);
-        } else {
-            Objective sidebarObjective = scoreboard.getSidebarObjective();
-            if (sidebarObjective != null && sidebarObjective.getName().equals(objectiveName)) {
-                scoreboard.clearSidebarObjective();
+        return scoreboard -> {
+            if (slot == DisplaySlot.SIDEBAR) {
+                scoreboard.setSidebarObjective(objectiveName);
+            } else {
+                Objective sidebarObjective = scoreboard.getSidebarObjective();
+                if (sidebarObjective != null && sidebarObjective.getName().equals(objectiveName)) {
+                    scoreboard.clearSidebarObjective();
+                }
             }
-        }
+        };
     }
 
-    private void handleTeamPacket(Player player, PacketContainer packet) {
+    private Consumer<PlayerScoreboard> handleTeamPacket(PacketContainer packet) {
         String teamName = packet.getStrings().read(0);
 //        String displayName = packet.getStrings().read(1);
         String prefix = packet.getStrings().readSafely(2);
@@ -161,30 +208,30 @@ public class PacketListener extends PacketAdapter {
         int mode = packet.getIntegers().read(1);
         //pack options getIntegers().read(2);
 
-        PlayerScoreboard scoreboard = manager.getScoreboard(player);
-
-        switch (mode) {
-            //create team
-            case 0:
-                scoreboard.createTeam(teamName, prefix, suffix, changedPlayer);
-                break;
-            //remove
-            case 1:
-                scoreboard.removeTeam(teamName);
-                break;
-            //update team info
-            case 2:
-                scoreboard.updateTeamInfo(teamName, prefix, suffix);
-                break;
-            case 3:
-                //add player
-                scoreboard.addPlayerTeam(teamName, changedPlayer);
-            case 4:
-                //remove player
-                scoreboard.removePlayerTeam(teamName, changedPlayer);
-            default:
-                //ignore
-                break;
-        }
+        return scoreboard -> {
+            switch (mode) {
+                //create team
+                case 0:
+                    scoreboard.createTeam(teamName, prefix, suffix, changedPlayer);
+                    break;
+                //remove
+                case 1:
+                    scoreboard.removeTeam(teamName);
+                    break;
+                //update team info
+                case 2:
+                    scoreboard.updateTeamInfo(teamName, prefix, suffix);
+                    break;
+                case 3:
+                    //add player
+                    scoreboard.addPlayerTeam(teamName, changedPlayer);
+                case 4:
+                    //remove player
+                    scoreboard.removePlayerTeam(teamName, changedPlayer);
+                default:
+                    //ignore
+                    break;
+            }
+        };
     }
 }
@@ -1,16 +1,12 @@
 package com.github.games647.scoreboardstats.scoreboard.protocol;
 
 import com.comphenix.protocol.ProtocolLibrary;
-import com.github.games647.scoreboardstats.config.Lang;
 import com.github.games647.scoreboardstats.SbManager;
 import com.github.games647.scoreboardstats.ScoreboardStats;
 import com.github.games647.scoreboardstats.config.Settings;
 import com.github.games647.scoreboardstats.config.VariableItem;
-import com.github.games647.scoreboardstats.variables.ReplaceEvent;
-import com.github.games647.scoreboardstats.variables.UnknownVariableException;
 import com.google.common.collect.Maps;
 
-import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
 
@@ -65,6 +61,7 @@ public class PacketSbManager extends SbManager {
 
     @Override
     public void unregister(Player player) {
+        removeSidebarState(player);
         PlayerScoreboard scoreboard = scoreboards.remove(player.getUniqueId());
         if (scoreboard != null) {
             scoreboard.getObjectives().stream()
@@ -75,6 +72,15 @@ public class PacketSbManager extends SbManager {
 
     @Override
     public void createScoreboard(Player player) {
+        sendBatched(player, () -> createSidebar(player));
+    }
+
+    @Override
+    public void createTopListScoreboard(Player player) {
+        sendBatched(player, () -> createTopListSidebar(player));
+    }
+
+    private void createSidebar(Player player) {
         PlayerScoreboard scoreboard = getScoreboard(player);
         Objective oldObjective = scoreboard.getSidebarObjective();
         if (!isAllowed(player) || oldObjective != null && !TEMP_SB_NAME.equals(oldObjective.getName())) {
@@ -83,38 +89,19 @@ public class PacketSbManager extends SbManager {
         }
 
         Objective objective = scoreboard.createSidebarObjective(SB_NAME, Settings.getMainScoreboard().getTitle(), true);
-        Iterator<VariableItem> iter = Settings.getMainScoreboard().getItemsByName().values().iterator();
-        while (iter.hasNext()) {
-            VariableItem scoreItem = iter.next();
-
-            String displayText = scoreItem.getDisplayText();
-            int defScore = scoreItem.getScore();
-
-            String variable = scoreItem.getVariable();
-            if (variable == null) {
-                update(player, displayText, defScore);
-            } else {
-                try {
-                    ReplaceEvent replaceEvent = replaceManager.getScore(player, variable, displayText, defScore, true);
-                    if (replaceEvent.isModified()) {
-                        sendScore(objective, displayText, replaceEvent.getScore());
-                    }
-                } catch (UnknownVariableException ex) {
-                    //Remove the variable becaue we can't replace it
-                    iter.remove();
-                    Settings.getMainScoreboard().getItemsByVariable().remove(scoreItem.getVariable());
-
-                    plugin.getLogger().info(Lang.get("unknownVariable", scoreItem));
-                }
+        for (VariableItem scoreItem : Settings.getMainScoreboard().getItemsByName().values()) {
+            if (scoreItem.getVariable() == null) {
+                update(player, scoreItem.getDisplayText(), scoreItem.getScore());
             }
         }
 
+        refreshItems(player, true, (displayText, score) -> sendScore(objective, displayText, score));
+
         //Schedule the next tempscoreboard show
         scheduleShowTask(player, true);
     }
 
-    @Override
-    public void createTopListScoreboard(Player player) {
+    private void createTopListSidebar(Player player) {
         PlayerScoreboard scoreboard = getScoreboard(player);
         Objective oldObjective = scoreboard.getSidebarObjective();
         if (!isAllowed(player) || oldObjective == null
@@ -158,27 +145,18 @@ public class PacketSbManager extends SbManager {
     protected void sendUpdate(Player player) {
         Objective sidebar = getScoreboard(player).getSidebarObjective();
         if (SB_NAME.equals(sidebar.getName())) {
-            Iterator<VariableItem> iter = Settings.getMainScoreboard().getItemsByVariable().values().iterator();
-            while (iter.hasNext()) {
-                VariableItem variableItem = iter.next();
-
-                String variable = variableItem.getVariable();
-                String displayText = variableItem.getDisplayText();
-                int score = variableItem.getScore();
-
-                try {
-                    ReplaceEvent replaceEvent = replaceManager.getScore(player, variable, displayText, score, false);
-                    if (replaceEvent.isModified()) {
-                        sendScore(sidebar, displayText, replaceEvent.getScore());
-                    }
-                } catch (UnknownVariableException ex) {
-                    //Remove the variable becaue we can't replace it
-                    iter.remove();
-                    Settings.getMainScoreboard().getItemsByName().remove(variableItem.getDisplayText());
-
-                    plugin.getLogger().info(Lang.get("unknownVariable", variableItem));
-                }
-            }
+            sendBatched(player, () -> refreshItems(player, false
+                    , (displayText, score) -> sendScore(sidebar, displayText, score)));
+        }
+    }
+
+    private void sendBatched(Player player, Runnable updater) {
+        //collect all packets of this update and send them together
+        PacketFactory.startBatch(player);
+        try {
+            updater.run();
+        } finally {
+            PacketFactory.flush(player);
         }
     }
 
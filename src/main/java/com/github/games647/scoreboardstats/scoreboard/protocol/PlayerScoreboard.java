@@ -2,9 +2,11 @@ package com.github.games647.scoreboardstats.scoreboard.protocol;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 import org.bukkit.entity.Player;
@@ -16,7 +18,8 @@ public class PlayerScoreboard {
 
     private final Player player;
 
-    private final Map<String, Objective> objectivesByName = Maps.newHashMap();
+    //only a few objectives per player - searching them is cheaper than a map
+    private final List<Objective> objectives = Lists.newArrayListWithCapacity(2);
     private final Map<String, Team> teamByName = Maps.newHashMap();
 
     private Objective sidebarObjective;
@@ -56,18 +59,18 @@ public class PlayerScoreboard {
             Preconditions.checkState(sidebarObjective == null, "There is already an sidebar objective");
         }
 
-        if (objectivesByName.containsKey(objectiveName)) {
+        Objective existing = getObjective(objectiveName);
+        if (existing != null) {
             //the objecive already exits. I assume that no other use this unique name
             //so we expect that a other sidebar was showing
-            Objective objective = objectivesByName.get(objectiveName);
-            PacketFactory.sendDisplayPacket(objective);
-            sidebarObjective = objective;
-            return objective;
+            PacketFactory.sendDisplayPacket(existing);
+            sidebarObjective = existing;
+            return existing;
         }
 
         Objective objective = new Objective(this, objectiveName, displayName);
         sidebarObjective = objective;
-        objectivesByName.put(objectiveName, objective);
+        objectives.add(objective);
         return objective;
     }
 
@@ -86,7 +89,7 @@ public class PlayerScoreboard {
      * @return the objectives
      */
     public Collection<Objective> getObjectives() {
-        return ImmutableSet.copyOf(objectivesByName.values());
+        return ImmutableSet.copyOf(objectives);
     }
 
     /**
@@ -99,15 +102,23 @@ public class PlayerScoreboard {
     }
 
     void addObjective(String objectiveName, String displayName) {
-        objectivesByName.put(objectiveName, new Objective(this, objectiveName, displayName, false));
+        //replaces the old one
+        objectives.removeIf(objective -> objective.getName().equals(objectiveName));
+        objectives.add(new Objective(this, objectiveName, displayName, false));
     }
 
     Objective getObjective(String name) {
-        return objectivesByName.get(name);
+        for (Objective objective : objectives) {
+            if (objective.getName().equals(name)) {
+                return objective;
+            }
+        }
+
+        return null;
     }
 
     void removeObjective(String objectiveName) {
-        objectivesByName.remove(objectiveName);
+        objectives.removeIf(objective -> objective.getName().equals(objectiveName));
         if (sidebarObjective != null && sidebarObjective.getName().equals(objectiveName)) {
             clearSidebarObjective();
         }
@@ -117,7 +128,7 @@ public class PlayerScoreboard {
         if (objectiveName.isEmpty()) {
             clearSidebarObjective();
         } else {
-            sidebarObjective = objectivesByName.get(objectiveName);
+            sidebarObjective = getObjective(objectiveName);
         }
     }
 
@@ -130,15 +141,15 @@ public class PlayerScoreboard {
          * Very weird that minecraft always ignore the name of the parent objective and
          * will remove the score from the complete scoreboard
          */
-        objectivesByName.values().stream().forEach(entry -> entry.items.remove(scoreName));
+        for (Objective objective : objectives) {
+            objective.removeItem(scoreName);
+        }
     }
 
     void createOrUpdateScore(String scoreName, String parent, int score) {
-        Objective objective = objectivesByName.get(parent);
+        Objective objective = getObjective(parent);
         if (objective != null) {
-            Item item = new Item(objective, scoreName, score, false);
-            //This automatically replace the old one
-            objective.items.put(scoreName, item);
+            objective.updateItem(scoreName, score);
         }
     }
 
@@ -52,10 +52,19 @@ public class PluginListener implements Listener {
         Map<String, VariableReplaceAdapter<? extends Plugin>> specificReplacers = replaceManager.getReplacers();
         Iterator<VariableReplaceAdapter<? extends Plugin>> iterator = specificReplacers.values().iterator();
         while (iterator.hasNext()) {
-            Plugin plugin = iterator.next().getPlugin();
-            if (plugin != null && plugin.getName().equals(disablePluginName)) {
+            if (isOwnedBy(iterator.next(), disablePluginName)) {
                 iterator.remove();
             }
         }
+
+        replaceManager.getWildcardReplacers().removeIf(replacer -> isOwnedBy(replacer, disablePluginName));
+
+        //variable items could be still bound to the removed replacers
+        replaceManager.invalidateBindings();
+    }
+
+    private boolean isOwnedBy(VariableReplaceAdapter<?> replacer, String pluginName) {
+        Plugin plugin = replacer.getPlugin();
+        return plugin != null && plugin.getName().equals(pluginName);
     }
 }
@@ -30,6 +30,15 @@ public class ReplaceEvent {
         this.score = score;
     }
 
+    /**
+     * Get the variable which should be replaced
+     *
+     * @return the variable <b>without the variable identifiers (%)</b>
+     */
+    public String getVariable() {
+        return variable;
+    }
+
     /**
      * Get whether this event is modified
      *
@@ -10,11 +10,19 @@ import com.github.games647.scoreboardstats.variables.defaults.*;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 
 import org.bukkit.Bukkit;
@@ -31,6 +39,9 @@ public class ReplaceManager implements Listener {
 
     private static final Map<Class<? extends VariableReplaceAdapter<?>>, String> DEFAULTS;
 
+    //replacers are mostly fast, so a couple of threads are enough to hide slow lookups
+    private static final int ASYNC_THREADS = 2;
+
     static {
         Map<Class<? extends VariableReplaceAdapter<?>>, String> tempMap = Maps.newHashMap();
         //empty value means this plugin
@@ -66,12 +77,22 @@ public class ReplaceManager implements Listener {
 
     private final Set<String> skipList = Sets.newHashSet();
     private final Set<VariableReplaceAdapter<?>> legacyReplacers = Sets.newHashSet();
+    private final WildcardIndex<VariableReplaceAdapter<?>> wildcardReplacers = new WildcardIndex<>();
     private final Map<String, VariableReplaceAdapter<?>> globals = Maps.newHashMap();
     private final Map<String, VariableReplaceAdapter<?>> specificReplacer = Maps.newHashMap();
 
+    //results of async global replacers which will be sent on the next global update
+    private final Map<String, ReplaceEvent> resolvedGlobals = new ConcurrentHashMap<>();
+    private final AtomicBoolean globalsPending = new AtomicBoolean();
+
+    //incremented if the replacers change, so the bindings of the variable items will be renewed
+    private int bindingVersion;
+
     private final ScoreboardStats plugin;
     private final SbManager sbManager;
 
+    private final ExecutorService asyncExecutor;
+
     /**
      * Creates a new replace manager
      *
@@ -82,6 +103,12 @@ public class ReplaceManager implements Listener {
         this.plugin = plugin;
         this.sbManager = scoreboardManager;
 
+        asyncExecutor = Executors.newFixedThreadPool(ASYNC_THREADS, new ThreadFactoryBuilder()
+                //Give the thread a name so we can find them
+                .setNameFormat(plugin.getName() + "-Replacer-%d")
+                .setDaemon(true)
+                .build());
+
         Bukkit.getPluginManager().registerEvents(new PluginListener(this), plugin);
         addDefaultReplacers();
     }
@@ -95,6 +122,7 @@ public class ReplaceManager implements Listener {
     @Deprecated
     public void register(Replaceable replacer, String pluginName) {
         legacyReplacers.add(new LegacyReplaceWrapper(Bukkit.getPluginManager().getPlugin(pluginName), replacer));
+        invalidateBindings();
     }
 
     /**
@@ -131,9 +159,9 @@ public class ReplaceManager implements Listener {
      */
     public void register(VariableReplaceAdapter<? extends Plugin> replacer) {
         for (String variable : replacer.getVariables()) {
-            if (variable.contains("*")) {
+            if (WildcardIndex.isWildcard(variable)) {
                 //contains wildcard
-                legacyReplacers.add(replacer);
+                wildcardReplacers.put(variable, replacer);
             }
 
             specificReplacer.put(variable, replacer);
@@ -145,6 +173,8 @@ public class ReplaceManager implements Listener {
                 }
             }
         }
+
+        invalidateBindings();
     }
 
     /**
@@ -170,6 +200,14 @@ public class ReplaceManager implements Listener {
             found = true;
         }
 
+        if (wildcardReplacers.removeIf(next -> next.equals(replacer))) {
+            found = true;
+        }
+
+        if (found) {
+            invalidateBindings();
+        }
+
         return found;
     }
 
@@ -191,6 +229,14 @@ public class ReplaceManager implements Listener {
             }
         }
 
+        if (wildcardReplacers.removeIf(next -> next.equals(replacer))) {
+            found = true;
+        }
+
+        if (found) {
+            invalidateBindings();
+        }
+
         return found;
     }
 
@@ -210,7 +256,7 @@ public class ReplaceManager implements Listener {
     public void updateScore(Player player, String variable, int newScore) {
         VariableItem variableItem = Settings.getMainScoreboard().getItemsByVariable().get(variable);
         if (variableItem != null) {
-            sbManager.update(player, variableItem.getDisplayText(), newScore);
+            sbManager.update(player, variableItem, newScore);
         }
     }
 
@@ -246,33 +292,102 @@ public class ReplaceManager implements Listener {
         }
 
         //cache found variables
-        VariableReplacer replacer = specificReplacer.get(variable);
-        if (replacer == null) {
-            getScoreLegacy(player, variable, replaceEvent);
-        } else {
-            try {
-                replacer.onReplace(player, variable, replaceEvent);
-            } catch (LinkageError | Exception replacerException) {
-                //remove the replacer if it throws exceptions, to prevent future ones
-                //Maybe we need to catch compiler "errors"
-                plugin.getLogger().log(Level.WARNING, Lang.get("replacerException", replacer), replacerException);
-                unregister(replacer);
-            }
-        }
+        VariableReplaceAdapter<?> replacer = specificReplacer.get(variable);
+        replace(player, replacer, replacer, replaceEvent, complete);
+        return replaceEvent;
+    }
 
-        if (complete && replaceEvent.isConstant()) {
-            skipList.add(variable);
-            //they are updated with events so we don't need to update it manually
-            globals.remove(variable);
+    /**
+     * Get the score for a variable item. The replacer is looked up only once and then bound to the item, so
+     * following calls don't have to search it again.
+     *
+     * @param player the associated player
+     * @param variableItem the scoreboard item of the variable
+     * @param oldScore the score of the scoreboard item
+     * @param complete whether it's the first refresh
+     * @return the modified state
+     * @throws UnknownVariableException if the variable couldn't be replace
+     */
+    public ReplaceEvent getScore(Player player, VariableItem variableItem, int oldScore, boolean complete)
+            throws UnknownVariableException {
+        ReplaceEvent replaceEvent = new ReplaceEvent(variableItem.getVariable(), false
+                , variableItem.getDisplayText(), oldScore);
+
+        VariableBinding binding = bind(variableItem);
+        if (!complete && binding.isSkipped()) {
+            //Check if the variable can be updated with event handlers or is global
+            //therefore we just need a initial value
+            return replaceEvent;
         }
 
+        replace(player, binding.getReplacer(), binding.getAccessor(), replaceEvent, complete);
         return replaceEvent;
     }
 
+    /**
+     * Check whether the variable is replaced by a thread-safe replacer and has to be updated manually.
+     *
+     * @param variable the variable
+     * @return whether the variable could be resolved in a background thread
+     */
+    public boolean isAsync(String variable) {
+        VariableReplaceAdapter<?> replacer = specificReplacer.get(variable);
+        return replacer != null && replacer.isAsync() && !skipList.contains(variable);
+    }
+
+    /**
+     * Check whether the variable item is replaced by a thread-safe replacer and has to be updated manually.
+     *
+     * @param variableItem the scoreboard item of the variable
+     * @return whether the variable could be resolved in a background thread
+     */
+    public boolean isAsync(VariableItem variableItem) {
+        VariableBinding binding = bind(variableItem);
+        VariableReplaceAdapter<?> replacer = binding.getReplacer();
+        return replacer != null && replacer.isAsync() && !binding.isSkipped();
+    }
+
+    /**
+     * Get the scores of variables in a background thread. All variables have to be replaced by a thread-safe
+     * replacer.
+     *
+     * @param player the associated player
+     * @param variableItems the items of the variables
+     * @param resultConsumer receives the modified state of each item in the background thread
+     * @return future that completes after all variables are resolved
+     * @see #isAsync(String)
+     */
+    public CompletableFuture<Void> getScoresAsync(Player player, Collection<VariableItem> variableItems
+            , BiConsumer<VariableItem, ReplaceEvent> resultConsumer) {
+        //the replacer map isn't thread-safe so look it up here
+        Map<VariableItem, VariableBinding> bindings = Maps.newHashMapWithExpectedSize(variableItems.size());
+        for (VariableItem variableItem : variableItems) {
+            bindings.put(variableItem, bind(variableItem));
+        }
+
+        return CompletableFuture.runAsync(() -> bindings.forEach((variableItem, binding) -> {
+            ReplaceEvent replaceEvent = new ReplaceEvent(variableItem.getVariable(), false
+                    , variableItem.getDisplayText(), variableItem.getScore());
+            if (replaceAsync(player, binding.getReplacer(), binding.getAccessor(), replaceEvent)) {
+                resultConsumer.accept(variableItem, replaceEvent);
+            }
+        }), asyncExecutor);
+    }
+
     /**
      * Executes an update on all global replacers
      */
     public void updateGlobals() {
+        //send the results from the last background run
+        Iterator<Map.Entry<String, ReplaceEvent>> resolvedIter = resolvedGlobals.entrySet().iterator();
+        while (resolvedIter.hasNext()) {
+            Map.Entry<String, ReplaceEvent> entry = resolvedIter.next();
+            resolvedIter.remove();
+
+            updateScore(entry.getKey(), entry.getValue().getScore());
+        }
+
+        Map<VariableItem, VariableReplaceAdapter<?>> asyncGlobals = Maps.newHashMap();
         for (Map.Entry<String, VariableReplaceAdapter<?>> entrySet : globals.entrySet()) {
             String variable = entrySet.getKey();
             VariableItem variableItem = Settings.getMainScoreboard().getItemsByVariable().get(variable);
@@ -280,14 +395,43 @@ public class ReplaceManager implements Listener {
                 continue;
             }
 
-            ReplaceEvent replaceEvent = new ReplaceEvent(variable, false, variableItem.getDisplayText(), -1);
-
             VariableReplaceAdapter<? extends Plugin> globalReplacer = entrySet.getValue();
+            if (globalReplacer.isAsync()) {
+                asyncGlobals.put(variableItem, globalReplacer);
+                continue;
+            }
+
+            ReplaceEvent replaceEvent = new ReplaceEvent(variable, false, variableItem.getDisplayText(), -1);
             globalReplacer.onReplace(null, variable, replaceEvent);
             if (replaceEvent.isModified()) {
                 updateScore(variable, replaceEvent.getScore());
             }
         }
+
+        //skip it if the last run isn't finished yet
+        if (!asyncGlobals.isEmpty() && globalsPending.compareAndSet(false, true)) {
+            asyncExecutor.execute(() -> {
+                try {
+                    asyncGlobals.forEach((variableItem, replacer) -> {
+                        String variable = variableItem.getVariable();
+                        ReplaceEvent replaceEvent = new ReplaceEvent(variable, false
+                                , variableItem.getDisplayText(), -1);
+                        if (replaceAsync(null, replacer, replacer, replaceEvent) && replaceEvent.isModified()) {
+                            resolvedGlobals.put(variable, replaceEvent);
+                        }
+                    });
+                } finally {
+                    globalsPending.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stops the background threads for async replacers.
+     */
+    public void close() {
+        asyncExecutor.shutdown();
     }
 
     protected Map<Class<? extends VariableReplaceAdapter<?>>, String> getDefaults() {
@@ -298,6 +442,17 @@ public class ReplaceManager implements Listener {
         return specificReplacer;
     }
 
+    protected WildcardIndex<VariableReplaceAdapter<?>> getWildcardReplacers() {
+        return wildcardReplacers;
+    }
+
+    /**
+     * Forces all variable items to look up their replacer again.
+     */
+    protected void invalidateBindings() {
+        bindingVersion++;
+    }
+
     protected boolean registerDefault(Class<? extends VariableReplaceAdapter<?>> replacerClass, String pluginName) {
         try {
             VariableReplaceAdapter<?> instance = createInstance(replacerClass);
@@ -324,8 +479,82 @@ public class ReplaceManager implements Listener {
         return false;
     }
 
+    private VariableBinding bind(VariableItem variableItem) {
+        VariableBinding binding = variableItem.getBinding();
+        if (binding == null || binding.getVersion() != bindingVersion) {
+            String variable = variableItem.getVariable();
+
+            VariableReplaceAdapter<?> replacer = specificReplacer.get(variable);
+            VariableReplacer accessor = null;
+            if (replacer != null) {
+                accessor = replacer.bind(variable);
+            }
+
+            binding = new VariableBinding(bindingVersion, replacer, accessor, skipList.contains(variable));
+            variableItem.setBinding(binding);
+        }
+
+        return binding;
+    }
+
+    private void replace(Player player, VariableReplaceAdapter<?> replacer, VariableReplacer accessor
+            , ReplaceEvent replaceEvent, boolean complete) throws UnknownVariableException {
+        String variable = replaceEvent.getVariable();
+        if (replacer == null) {
+            getScoreLegacy(player, variable, replaceEvent);
+        } else {
+            try {
+                accessor.onReplace(player, variable, replaceEvent);
+            } catch (LinkageError | Exception replacerException) {
+                //remove the replacer if it throws exceptions, to prevent future ones
+                //Maybe we need to catch compiler "errors"
+                plugin.getLogger().log(Level.WARNING, Lang.get("replacerException", replacer), replacerException);
+                unregister(replacer);
+            }
+        }
+
+        if (complete && replaceEvent.isConstant()) {
+            skipList.add(variable);
+            //they are updated with events so we don't need to update it manually
+            globals.remove(variable);
+            invalidateBindings();
+        }
+    }
+
+    private boolean replaceAsync(Player player, VariableReplaceAdapter<?> replacer, VariableReplacer accessor
+            , ReplaceEvent replaceEvent) {
+        try {
+            accessor.onReplace(player, replaceEvent.getVariable(), replaceEvent);
+            return true;
+        } catch (LinkageError | Exception replacerException) {
+            plugin.getLogger().log(Level.WARNING, Lang.get("replacerException", replacer), replacerException);
+            //the replacers are managed on the main thread
+            Bukkit.getScheduler().runTask(plugin, () -> unregister(replacer));
+            return false;
+        }
+    }
+
     private void getScoreLegacy(Player player, String variable, ReplaceEvent replaceEvent)
             throws UnknownVariableException {
+        //only ask the replacers whose wildcard pattern matches this variable
+        for (VariableReplaceAdapter<?> wildcardReplacer : wildcardReplacers.getMatches(variable)) {
+            try {
+                wildcardReplacer.onReplace(player, variable, replaceEvent);
+            } catch (LinkageError | Exception replacerException) {
+                plugin.getLogger().log(Level.WARNING, Lang.get("replacerException", wildcardReplacer)
+                        , replacerException);
+                unregister(wildcardReplacer);
+                continue;
+            }
+
+            if (replaceEvent.isModified()) {
+                specificReplacer.put(variable, wildcardReplacer);
+                invalidateBindings();
+                return;
+            }
+        }
+
+        //old replacers don't tell us their variables, so we have to try all of them
         for (Iterator<VariableReplaceAdapter<?>> iterator = legacyReplacers.iterator(); iterator.hasNext();) {
             VariableReplaceAdapter<?> legacyReplacer = iterator.next();
 
@@ -338,6 +567,7 @@ public class ReplaceManager implements Listener {
 
             if (replaceEvent.isModified()) {
                 specificReplacer.put(variable, legacyReplacer);
+                invalidateBindings();
                 //fast return
                 return;
             }
@@ -0,0 +1,57 @@
+package com.github.games647.scoreboardstats.variables;
+
+/**
+ * Represents the replacer of a variable item that was looked up once, so the variable can be resolved with a direct
+ * call instead of searching the replacer on every update.
+ */
+public class VariableBinding {
+
+    private final int version;
+
+    private final VariableReplaceAdapter<?> replacer;
+    private final VariableReplacer accessor;
+    private final boolean skipped;
+
+    VariableBinding(int version, VariableReplaceAdapter<?> replacer, VariableReplacer accessor, boolean skipped) {
+        this.version = version;
+        this.replacer = replacer;
+        this.accessor = accessor;
+        this.skipped = skipped;
+    }
+
+    /**
+     * Get the state of the registered replacers at the time this binding was created.
+     *
+     * @return the binding version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the registered replacer of this variable
+     *
+     * @return the replacer or null if the variable has to be searched in the legacy replacers
+     */
+    public VariableReplaceAdapter<?> getReplacer() {
+        return replacer;
+    }
+
+    /**
+     * Get the replacer that resolves exactly this variable
+     *
+     * @return the specialized replacer or null if there is no registered replacer
+     */
+    public VariableReplacer getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * Check whether the variable is global or updated by events, so only the initial value has to be resolved.
+     *
+     * @return whether the scheduled updates can skip this variable
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
+}
@@ -65,6 +65,17 @@ public abstract class VariableReplaceAdapter<P extends Plugin> implements Variab
         return Arrays.asList(variables);
     }
 
+    /**
+     * Get a replacer which resolves only this variable. It will be called once the variable is resolved the first
+     * time, so implementations could skip the check which variable is requested on every update.
+     *
+     * @param variable the variable <b>without the variable identifiers (%)</b>
+     * @return the replacer for this variable
+     */
+    public VariableReplacer bind(String variable) {
+        return this;
+    }
+
     /**
      * Check whether this plugin is called async. This means that it's
      * thread-safe.
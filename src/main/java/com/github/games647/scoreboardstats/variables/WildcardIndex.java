@@ -0,0 +1,111 @@
+package com.github.games647.scoreboardstats.variables;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Represents a prefix trie of wildcard variables like <i>prefix_*</i>. A variable can be matched against all
+ * registered patterns by walking once over its characters.
+ *
+ * @param <V> the type of the associated value
+ */
+class WildcardIndex<V> {
+
+    private static final char WILDCARD = '*';
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Check whether the variable is a wildcard pattern.
+     *
+     * @param variable the variable
+     * @return whether the variable contains a wildcard
+     */
+    public static boolean isWildcard(String variable) {
+        return variable.indexOf(WILDCARD) != -1;
+    }
+
+    /**
+     * Adds a wildcard pattern. Everything after the first wildcard is ignored. An existing value for the same
+     * pattern will be replaced.
+     *
+     * @param pattern the wildcard pattern
+     * @param value the associated value
+     */
+    public void put(String pattern, V value) {
+        int wildcardIndex = pattern.indexOf(WILDCARD);
+        int prefixLength = wildcardIndex == -1 ? pattern.length() : wildcardIndex;
+
+        Node<V> node = root;
+        for (int i = 0; i < prefixLength; i++) {
+            node = node.children.computeIfAbsent(pattern.charAt(i), key -> new Node<>());
+        }
+
+        node.value = value;
+    }
+
+    /**
+     * Get the values of all patterns which matches this variable.
+     *
+     * @param variable the variable
+     * @return the matching values - the most specific (longest) pattern first
+     */
+    public List<V> getMatches(String variable) {
+        List<V> matches = Lists.newArrayListWithExpectedSize(1);
+
+        Node<V> node = root;
+        if (node.value != null) {
+            matches.add(node.value);
+        }
+
+        for (int i = 0; i < variable.length(); i++) {
+            node = node.children.get(variable.charAt(i));
+            if (node == null) {
+                break;
+            }
+
+            if (node.value != null) {
+                //the deeper the pattern the more specific it is
+                matches.add(0, node.value);
+            }
+        }
+
+        return matches;
+    }
+
+    /**
+     * Removes all patterns whose value matches the filter.
+     *
+     * @param filter the filter for the values
+     * @return whether a pattern was removed
+     */
+    public boolean removeIf(Predicate<? super V> filter) {
+        return removeIf(root, filter);
+    }
+
+    private boolean removeIf(Node<V> node, Predicate<? super V> filter) {
+        boolean removed = false;
+        if (node.value != null && filter.test(node.value)) {
+            node.value = null;
+            removed = true;
+        }
+
+        for (Node<V> child : node.children.values()) {
+            removed |= removeIf(child, filter);
+        }
+
+        //drop the branches which have no pattern anymore
+        node.children.values().removeIf(child -> child.value == null && child.children.isEmpty());
+        return removed;
+    }
+
+    private static class Node<V> {
+
+        private final Map<Character, Node<V>> children = Maps.newHashMapWithExpectedSize(2);
+        private V value;
+    }
+}
@@ -1,6 +1,12 @@
 package com.github.games647.scoreboardstats.variables.defaults;
 
 import com.github.games647.scoreboardstats.variables.ReplaceEvent;
+import com.github.games647.scoreboardstats.variables.VariableReplacer;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ObjectArrays;
+
+import java.util.Map;
+import java.util.function.ToIntFunction;
 
 import org.bukkit.entity.Player;
 import org.bukkit.event.Listener;
@@ -15,72 +21,50 @@ public class BukkitVariables extends DefaultReplaceAdapter<Plugin> implements Li
 
     private static final int MINUTE_TO_SECOND = 60;
 
-    public BukkitVariables() {
-        super(null, "health", "lifetime", "exp", "no_domage_ticks", "xp_to_Level", "last_damage"
-                , "helmet", "boots", "leggings", "chestplate", "time"
-                , "meta_*");
-    }
+    private static final String META_PREFIX = "meta_";
 
-    @Override
-    public void onReplace(Player player, String variable, ReplaceEvent replaceEvent) {
-        if ("health".equals(variable)) {
-            replaceEvent.setScore(NumberConversions.round(player.getHealth()));
-            return;
-        }
-
-        if ("lifetime".equals(variable)) {
+    //compiled once, so the variables doesn't have to be compared on every update
+    private static final Map<String, ToIntFunction<Player>> SCORES = ImmutableMap
+            .<String, ToIntFunction<Player>>builder()
+            .put("health", player -> NumberConversions.round(player.getHealth()))
             // --> Minutes
-            replaceEvent.setScore(player.getTicksLived() / (20 * MINUTE_TO_SECOND));
-            return;
-        }
-
-        if ("exp".equals(variable)) {
-            replaceEvent.setScore(player.getTotalExperience());
-            return;
-        }
-
-        if ("no_damage_ticks".equals(variable)) {
+            .put("lifetime", player -> player.getTicksLived() / (20 * MINUTE_TO_SECOND))
+            .put("exp", Player::getTotalExperience)
             // --> Minutes
-            replaceEvent.setScore(player.getNoDamageTicks() / (20 * MINUTE_TO_SECOND));
-            return;
-        }
+            .put("no_damage_ticks", player -> player.getNoDamageTicks() / (20 * MINUTE_TO_SECOND))
+            .put("xp_to_level", Player::getExpToLevel)
+            .put("last_damage", player -> (int) player.getLastDamage())
+            .put("helmet", player -> calculateDurability(player.getInventory().getHelmet()))
+            .put("boots", player -> calculateDurability(player.getInventory().getBoots()))
+            .put("leggings", player -> calculateDurability(player.getInventory().getLeggings()))
+            .put("chestplate", player -> calculateDurability(player.getInventory().getChestplate()))
+            .put("time", player -> (int) player.getWorld().getTime())
+            .build();
 
-        if ("xp_to_level".equals(variable)) {
-            replaceEvent.setScore(player.getExpToLevel());
-            return;
-        }
-
-        if ("last_damage".equals(variable)) {
-            replaceEvent.setScore((int) (player.getLastDamage()));
-            return;
-        }
-
-        if ("helmet".equals(variable)) {
-            replaceEvent.setScore(calculateDurability(player.getInventory().getHelmet()));
-            return;
-        }
+    public BukkitVariables() {
+        super(null, ObjectArrays.concat(SCORES.keySet().toArray(new String[0]), META_PREFIX + '*'));
+    }
 
-        if ("boots".equals(variable)) {
-            replaceEvent.setScore(calculateDurability(player.getInventory().getBoots()));
-            return;
+    @Override
+    public VariableReplacer bind(String variable) {
+        ToIntFunction<Player> scoreFunction = SCORES.get(variable);
+        if (scoreFunction == null) {
+            return this;
         }
 
-        if ("leggings".equals(variable)) {
-            replaceEvent.setScore(calculateDurability(player.getInventory().getLeggings()));
-            return;
-        }
+        return (player, boundVariable, replaceEvent) -> replaceEvent.setScore(scoreFunction.applyAsInt(player));
+    }
 
-        if ("chestplate".equals(variable)) {
-            replaceEvent.setScore(calculateDurability(player.getInventory().getChestplate()));
+    @Override
+    public void onReplace(Player player, String variable, ReplaceEvent replaceEvent) {
+        ToIntFunction<Player> scoreFunction = SCORES.get(variable);
+        if (scoreFunction != null) {
+            replaceEvent.setScore(scoreFunction.applyAsInt(player));
             return;
         }
 
-        if ("time".equals(variable)) {
-            replaceEvent.setScore((int) player.getWorld().getTime());
-        }
-
-        if (variable.startsWith("meta_")) {
-            String key = variable.replace("meta_", "");
+        if (variable.startsWith(META_PREFIX)) {
+            String key = variable.replace(META_PREFIX, "");
             //assumimg this key is unique
             if (player.hasMetadata(key)) {
                 replaceEvent.setScore(player.getMetadata(key).get(0).asInt());
@@ -90,7 +74,7 @@ public class BukkitVariables extends DefaultReplaceAdapter<Plugin> implements Li
         }
     }
 
-    private int calculateDurability(ItemStack item) {
+    private static int calculateDurability(ItemStack item) {
         //Check if the user have an item on the slot and if the item isn't a stone block or something
         if (item == null || item.getType().getMaxDurability() == 0) {
             return 0;
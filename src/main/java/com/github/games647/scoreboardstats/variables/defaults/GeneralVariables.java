@@ -1,8 +1,12 @@
 package com.github.games647.scoreboardstats.variables.defaults;
 
 import com.github.games647.scoreboardstats.variables.ReplaceEvent;
+import com.github.games647.scoreboardstats.variables.VariableReplacer;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.Calendar;
+import java.util.Map;
+import java.util.function.IntSupplier;
 
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
@@ -15,31 +19,44 @@ public class GeneralVariables extends DefaultReplaceAdapter<Plugin> {
     //From bytes to mega bytes
     private static final int MB_CONVERSION = 1_024 * 1_024;
 
+    //compiled once, so the variables doesn't have to be compared on every update
+    private static final Map<String, IntSupplier> SCORES = ImmutableMap.<String, IntSupplier>builder()
+            //casting should be made after division
+            .put("free_ram", () -> (int) (Runtime.getRuntime().freeMemory() / MB_CONVERSION))
+            .put("max_ram", () -> (int) (Runtime.getRuntime().maxMemory() / MB_CONVERSION))
+            .put("used_ram", () -> {
+                long usedRam = Runtime.getRuntime().maxMemory() - Runtime.getRuntime().freeMemory();
+                //convert to megabytes
+                return (int) (usedRam / MB_CONVERSION);
+            })
+            .put("usedram", () -> {
+                Runtime runtime = Runtime.getRuntime();
+                //percent calculation
+                return (int) ((runtime.maxMemory() - runtime.freeMemory()) * 100 / runtime.maxMemory());
+            })
+            //Get the current date
+            .put("date", () -> Calendar.getInstance().get(Calendar.DAY_OF_MONTH))
+            .build();
+
     public GeneralVariables() {
-        super(null, "", true, true, false, "free_ram", "max_ram", "used_ram", "usedram", "date");
+        super(null, "", true, true, false, SCORES.keySet().toArray(new String[0]));
+    }
+
+    @Override
+    public VariableReplacer bind(String variable) {
+        IntSupplier scoreSupplier = SCORES.get(variable);
+        if (scoreSupplier == null) {
+            return this;
+        }
+
+        return (player, boundVariable, replaceEvent) -> replaceEvent.setScore(scoreSupplier.getAsInt());
     }
 
     @Override
     public void onReplace(Player player, String variable, ReplaceEvent replaceEvent) {
-        if ("free_ram".equals(variable)) {
-            //casting should be made after division
-            replaceEvent.setScore((int) (Runtime.getRuntime().freeMemory() / MB_CONVERSION));
-        } else if ("max_ram".equals(variable)) {
-            //casting should be made after division
-            replaceEvent.setScore((int) (Runtime.getRuntime().maxMemory() / MB_CONVERSION));
-        } else if ("used_ram".equals(variable)) {
-            long usedRam = Runtime.getRuntime().maxMemory() - Runtime.getRuntime().freeMemory();
-            //casting should be made after division
-            replaceEvent.setScore((int) (usedRam / MB_CONVERSION));
-            //convert to megabytes
-        } else if ("usedram".equals(variable)) {
-            //casting should be made after division
-            Runtime runtime = Runtime.getRuntime();
-            //percent calculation
-            replaceEvent.setScore((int) ((runtime.maxMemory() - runtime.freeMemory()) * 100 / runtime.maxMemory()));
-        } else if ("date".equals(variable)) {
-            //Get the current date
-            replaceEvent.setScore(Calendar.getInstance().get(Calendar.DAY_OF_MONTH));
+        IntSupplier scoreSupplier = SCORES.get(variable);
+        if (scoreSupplier != null) {
+            replaceEvent.setScore(scoreSupplier.getAsInt());
         }
     }
 }
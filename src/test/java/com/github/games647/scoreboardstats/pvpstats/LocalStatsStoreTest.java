@@ -0,0 +1,97 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalStatsStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReopen() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        UUID uuid = UUID.randomUUID();
+
+        LocalStatsStore store = new LocalStatsStore(directory);
+        store.open();
+
+        PlayerStats stats = new PlayerStats(-1, uuid, "Notch", 5, 2, 7, 3, 0);
+        store.save(Collections.singletonList(stats));
+        Assert.assertFalse(stats.isNew());
+        store.close();
+
+        LocalStatsStore reopened = new LocalStatsStore(directory);
+        reopened.open();
+
+        PlayerStats loaded = reopened.load(uuid);
+        Assert.assertEquals(stats.getId(), loaded.getId());
+        Assert.assertEquals("Notch", loaded.getPlayername());
+        Assert.assertEquals(5, loaded.getKills());
+        Assert.assertEquals(2, loaded.getDeaths());
+        Assert.assertEquals(7, loaded.getMobkills());
+        Assert.assertEquals(3, loaded.getKillstreak());
+
+        Assert.assertEquals(loaded.getId(), reopened.load("notch").getId());
+        Assert.assertTrue(reopened.load(UUID.randomUUID()).isNew());
+        reopened.close();
+    }
+
+    @Test
+    public void testRecoverLog() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Path dataFile = directory.resolve("stats.dat");
+        Path logFile = directory.resolve("stats.log");
+        UUID uuid = UUID.randomUUID();
+
+        LocalStatsStore store = new LocalStatsStore(directory);
+        store.open();
+        PlayerStats stats = new PlayerStats(-1, uuid, "Notch", 1, 0, 0, 1, 0);
+        store.save(Collections.singletonList(stats));
+        store.close();
+        byte[] savedData = Files.readAllBytes(dataFile);
+
+        LocalStatsStore changed = new LocalStatsStore(directory);
+        changed.open();
+        stats.onKill();
+        changed.save(Collections.singletonList(stats));
+        byte[] changeLog = Files.readAllBytes(logFile);
+        changed.close();
+
+        //like a crash after the log was forced, but before the mapped file was written
+        Files.write(dataFile, savedData);
+        Files.write(logFile, changeLog);
+
+        LocalStatsStore recovered = new LocalStatsStore(directory);
+        recovered.open();
+        Assert.assertEquals(2, recovered.load(uuid).getKills());
+        recovered.close();
+    }
+
+    @Test
+    public void testTopList() throws IOException {
+        LocalStatsStore store = new LocalStatsStore(folder.getRoot().toPath());
+        store.open();
+        store.save(Arrays.asList(
+                new PlayerStats(-1, UUID.randomUUID(), "first", 10, 0, 0, 0, 0),
+                new PlayerStats(-1, UUID.randomUUID(), "third", 1, 0, 0, 0, 0),
+                new PlayerStats(-1, UUID.randomUUID(), "second", 5, 0, 0, 0, 0)));
+
+        List<Map.Entry<String, Integer>> topList = store.getTopList(TopType.KILLS, 2);
+        Assert.assertEquals(2, topList.size());
+        Assert.assertEquals("first", topList.get(0).getKey());
+        Assert.assertEquals("second", topList.get(1).getKey());
+        store.close();
+    }
+}
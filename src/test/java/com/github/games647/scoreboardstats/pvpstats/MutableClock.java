@@ -0,0 +1,36 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock for the tests which can be moved to another day.
+ */
+class MutableClock extends Clock {
+
+    private Instant instant = Instant.EPOCH;
+
+    public void setDay(LocalDate day) {
+        instant = LocalDateTime.of(day, LocalTime.NOON).toInstant(ZoneOffset.UTC);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PeriodStatsTest {
+
+    private final MutableClock clock = new MutableClock();
+
+    @Test
+    public void testWeekBoundary() {
+        //sunday - the saturday is part of the week, but not of the month
+        clock.setDay(LocalDate.of(2026, 3, 1));
+        PeriodStats stats = new PeriodStats(clock);
+        stats.add(LocalDate.of(2026, 2, 28), 1, 0, 0);
+        stats.add(LocalDate.of(2026, 3, 1), 2, 0, 0);
+
+        Assert.assertEquals(2, stats.getKills(StatsPeriod.DAY));
+        Assert.assertEquals(3, stats.getKills(StatsPeriod.WEEK));
+        Assert.assertEquals(2, stats.getKills(StatsPeriod.MONTH));
+
+        //monday starts a new week
+        clock.setDay(LocalDate.of(2026, 3, 2));
+        stats.onKill();
+        Assert.assertEquals(1, stats.getKills(StatsPeriod.DAY));
+        Assert.assertEquals(1, stats.getKills(StatsPeriod.WEEK));
+        Assert.assertEquals(3, stats.getKills(StatsPeriod.MONTH));
+    }
+
+    @Test
+    public void testMonthBoundary() {
+        //thursday
+        clock.setDay(LocalDate.of(2026, 4, 30));
+        PeriodStats stats = new PeriodStats(clock);
+        stats.onDeath();
+        stats.onMobKill();
+
+        //friday starts a new month, but not a new week
+        clock.setDay(LocalDate.of(2026, 5, 1));
+        stats.onMobKill();
+
+        Assert.assertEquals(0, stats.getDeaths(StatsPeriod.MONTH));
+        Assert.assertEquals(1, stats.getMobkills(StatsPeriod.MONTH));
+        Assert.assertEquals(1, stats.getDeaths(StatsPeriod.WEEK));
+        Assert.assertEquals(2, stats.getMobkills(StatsPeriod.WEEK));
+    }
+
+    @Test
+    public void testPrune() {
+        clock.setDay(LocalDate.of(2026, 2, 10));
+        PeriodStats stats = new PeriodStats(clock);
+        stats.add(LocalDate.of(2026, 2, 10), 5, 0, 0);
+
+        //a new day removes the days before the earliest period start
+        clock.setDay(LocalDate.of(2026, 3, 2));
+        stats.add(LocalDate.of(2026, 3, 2), 1, 0, 0);
+
+        //only the kills of the remaining day are counted from an earlier day
+        clock.setDay(LocalDate.of(2026, 2, 10));
+        Assert.assertEquals(1, stats.getKills(StatsPeriod.DAY));
+    }
+
+    @Test
+    public void testUnsavedByDay() {
+        clock.setDay(LocalDate.of(2026, 3, 1));
+        PeriodStats stats = new PeriodStats(clock);
+        stats.onKill();
+
+        //saved after midnight
+        clock.setDay(LocalDate.of(2026, 3, 2));
+        stats.onKill();
+        stats.onKill();
+
+        Map<LocalDate, StatsDelta> unsaved = stats.takeUnsaved();
+        Assert.assertEquals(1, unsaved.get(LocalDate.of(2026, 3, 1)).getKills());
+        Assert.assertEquals(2, unsaved.get(LocalDate.of(2026, 3, 2)).getKills());
+        Assert.assertTrue(stats.takeUnsaved().isEmpty());
+
+        stats.restoreUnsaved(unsaved);
+        Assert.assertEquals(2, stats.takeUnsaved().size());
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import java.time.LocalDate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StatsPeriodTest {
+
+    @Test
+    public void testWeekStart() {
+        //weeks start on monday
+        Assert.assertEquals(LocalDate.of(2026, 2, 23), StatsPeriod.WEEK.getStart(LocalDate.of(2026, 3, 1)));
+        Assert.assertEquals(LocalDate.of(2026, 3, 2), StatsPeriod.WEEK.getStart(LocalDate.of(2026, 3, 2)));
+    }
+
+    @Test
+    public void testMonthStart() {
+        Assert.assertEquals(LocalDate.of(2026, 3, 1), StatsPeriod.MONTH.getStart(LocalDate.of(2026, 3, 1)));
+        Assert.assertEquals(LocalDate.of(2026, 2, 1), StatsPeriod.MONTH.getStart(LocalDate.of(2026, 2, 28)));
+        Assert.assertEquals(LocalDate.of(2026, 2, 28), StatsPeriod.DAY.getStart(LocalDate.of(2026, 2, 28)));
+    }
+
+    @Test
+    public void testEarliestStart() {
+        //the month started before the week
+        Assert.assertEquals(LocalDate.of(2026, 5, 1), StatsPeriod.getEarliestStart(LocalDate.of(2026, 5, 31)));
+        //the week started in the previous month
+        Assert.assertEquals(LocalDate.of(2026, 2, 23), StatsPeriod.getEarliestStart(LocalDate.of(2026, 3, 1)));
+    }
+
+    @Test
+    public void testFromVariable() {
+        Assert.assertEquals(StatsPeriod.WEEK, StatsPeriod.fromVariable("kills_week"));
+        Assert.assertEquals("mob", StatsPeriod.MONTH.stripSuffix("mob_month"));
+        Assert.assertNull(StatsPeriod.fromVariable("kills"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.games647.scoreboardstats.pvpstats;
+
+import com.github.games647.scoreboardstats.variables.ReplaceEvent;
+
+import java.time.LocalDate;
+
+import org.bukkit.entity.Player;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class StatsVariablesTest {
+
+    @Test
+    public void testDayChangeWithoutEvents() {
+        Player player = Mockito.mock(Player.class);
+
+        MutableClock clock = new MutableClock();
+        clock.setDay(LocalDate.of(2026, 3, 1));
+        PeriodStats periodStats = new PeriodStats(clock);
+        periodStats.onKill();
+
+        PlayerStats stats = Mockito.mock(PlayerStats.class);
+        Mockito.when(stats.getPeriodStats()).thenReturn(periodStats);
+        Mockito.when(stats.getKills()).thenReturn(10);
+
+        Database database = Mockito.mock(Database.class);
+        Mockito.when(database.getCachedStats(player)).thenReturn(stats);
+
+        StatsVariables variables = new StatsVariables(null, database);
+
+        ReplaceEvent lifetimeEvent = new ReplaceEvent("kills", false, "Kills", 0);
+        variables.onReplace(player, "kills", lifetimeEvent);
+        Assert.assertEquals(10, lifetimeEvent.getScore());
+        Assert.assertTrue(lifetimeEvent.isConstant());
+
+        ReplaceEvent dayEvent = new ReplaceEvent("kills_day", false, "Kills today", 0);
+        variables.onReplace(player, "kills_day", dayEvent);
+        Assert.assertEquals(1, dayEvent.getScore());
+        //has to be refreshed, because no kill or death happens at midnight
+        Assert.assertFalse(dayEvent.isConstant());
+
+        //the next refresh after midnight without any kill or death
+        clock.setDay(LocalDate.of(2026, 3, 2));
+
+        ReplaceEvent refreshEvent = new ReplaceEvent("kills_day", false, "Kills today", dayEvent.getScore());
+        variables.onReplace(player, "kills_day", refreshEvent);
+        Assert.assertEquals(0, refreshEvent.getScore());
+    }
+}
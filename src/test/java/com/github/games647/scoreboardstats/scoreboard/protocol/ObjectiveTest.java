@@ -0,0 +1,32 @@
+package com.github.games647.scoreboardstats.scoreboard.protocol;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObjectiveTest {
+
+    @Test
+    public void testForeignObjectiveMovedToSidebar() {
+        PlayerScoreboard scoreboard = new PlayerScoreboard(null);
+        //a below name objective of another plugin has a score for every player
+        scoreboard.addObjective("health", "Health");
+        for (int i = 0; i < 20; i++) {
+            scoreboard.createOrUpdateScore("player" + i, "health", i);
+        }
+
+        scoreboard.setSidebarObjective("health");
+        Objective sidebar = scoreboard.getSidebarObjective();
+
+        List<Item> items = sidebar.getItems();
+        Assert.assertEquals(20, items.size());
+        Assert.assertEquals("player19", items.get(0).getScoreName());
+        Assert.assertEquals("player0", items.get(19).getScoreName());
+
+        scoreboard.resetScore("player19");
+        Assert.assertEquals(19, items.size());
+        Assert.assertNull(sidebar.getItem("player19"));
+        Assert.assertNotNull(sidebar.getItem("player18"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.games647.scoreboardstats.variables;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WildcardIndexTest {
+
+    @Test
+    public void testMatches() {
+        WildcardIndex<String> wildcardIndex = new WildcardIndex<>();
+        wildcardIndex.put("player_*", "player");
+        wildcardIndex.put("player_stats_*", "stats");
+        wildcardIndex.put("server_*", "server");
+
+        Assert.assertEquals(Arrays.asList("stats", "player"), wildcardIndex.getMatches("player_stats_kills"));
+        Assert.assertEquals(Collections.singletonList("player"), wildcardIndex.getMatches("player_name"));
+        Assert.assertTrue(wildcardIndex.getMatches("serve").isEmpty());
+        Assert.assertTrue(wildcardIndex.getMatches("vault_money").isEmpty());
+    }
+
+    @Test
+    public void testRemove() {
+        WildcardIndex<String> wildcardIndex = new WildcardIndex<>();
+        wildcardIndex.put("player_*", "player");
+        wildcardIndex.put("player_stats_*", "stats");
+
+        Assert.assertTrue(wildcardIndex.removeIf("stats"::equals));
+        Assert.assertFalse(wildcardIndex.removeIf("stats"::equals));
+        Assert.assertEquals(Collections.singletonList("player"), wildcardIndex.getMatches("player_stats_kills"));
+    }
+}